@@ -0,0 +1,117 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of writing the console output to several sinks through a fan-out, compared with writing it
+ * directly to every sink. The sinks do almost no work, so the scores, in chunks written per second, show the cost of
+ * the dispatch itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FanOutOutputStreamBenchmark {
+
+    private static final int CHUNKS = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    public int sinkCount;
+
+    @Param({"128", "8192"})
+    public int chunkSize;
+
+    private final byte[] chunk = new byte[8192];
+    private LastByteOutputStream[] sinks;
+    private FanOutOutputStream fanOut;
+
+    @Setup
+    public void setUp() {
+        sinks = new LastByteOutputStream[sinkCount];
+        for (int i = 0; i < sinkCount; i++) {
+            sinks[i] = new LastByteOutputStream();
+        }
+        fanOut = new FanOutOutputStream(sinks);
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public int writeDirectly() throws IOException {
+        for (int i = 0; i < CHUNKS; i++) {
+            for (OutputStream sink : sinks) {
+                sink.write(chunk, 0, chunkSize);
+            }
+        }
+        return sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public int writeThroughFanOut() throws IOException {
+        for (int i = 0; i < CHUNKS; i++) {
+            fanOut.write(chunk, 0, chunkSize);
+        }
+        return sum();
+    }
+
+    /**
+     * Returns what the sinks have seen, so that JMH consumes it and the writes cannot be eliminated.
+     */
+    private int sum() {
+        int sum = 0;
+        for (LastByteOutputStream sink : sinks) {
+            sum += sink.sum;
+        }
+        return sum;
+    }
+
+    private static class LastByteOutputStream extends OutputStream {
+        private int sum;
+
+        @Override
+        public void write(int b) {
+            sum += b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sum += b[off + len - 1];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the literal search on raw bytes with matching decoded lines against a regular expression, and with
+ * decoding every line for a failure pattern. Scores are bytes of console output per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PatternMatchingOutputStreamBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int OUTPUT_SIZE = 1 << 20;
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"80", "400", "4000"})
+    public int lineLength;
+
+    @Param({"literal", "regex", "failure"})
+    public String matching;
+
+    private final byte[] output = new byte[OUTPUT_SIZE];
+    private List<Pattern> patterns;
+    private List<Pattern> failurePatterns;
+
+    @Setup
+    public void setUp() {
+        // "Started\\x20Application" is the same text, but the escape forces the regular expression path
+        Pattern pattern = "regex".equals(matching) ? Pattern.compile("Started\\x20Application") : Pattern.compile("Started Application");
+        patterns = Collections.singletonList(pattern);
+        failurePatterns = "failure".equals(matching)
+                ? Collections.singletonList(Pattern.compile("APPLICATION FAILED TO START"))
+                : Collections.<Pattern>emptyList();
+
+        byte[] line = new byte[lineLength];
+        for (int i = 0; i < lineLength - 1; i++) {
+            line[i] = (byte) ('a' + i % 26);
+        }
+        line[lineLength - 1] = '\n';
+        for (int off = 0; off < OUTPUT_SIZE; off += lineLength) {
+            System.arraycopy(line, 0, output, off, Math.min(lineLength, OUTPUT_SIZE - off));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OUTPUT_SIZE)
+    public boolean matchOutput() {
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(
+                new PatternSet(patterns, MatchMode.ANY_OF, failurePatterns), UTF_8);
+        for (int off = 0; off < OUTPUT_SIZE; off += CHUNK_SIZE) {
+            stream.write(output, off, Math.min(CHUNK_SIZE, OUTPUT_SIZE - off));
+        }
+        return stream.isMatched();
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.swierkosz.execasync.console.NullOutputStream;
+import com.github.swierkosz.execasync.macrobenchmark.SyntheticApplication;
+import org.gradle.api.Task;
+import org.gradle.api.internal.AbstractTask;
+import org.gradle.api.internal.project.AbstractProject;
+import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the real tasks against {@link SyntheticApplication} in several scenarios and reports, per scenario, the wall
+ * clock time until the application is ready (or its failure is detected), and the CPU time and allocation of this
+ * JVM, which stands in for the Gradle daemon, meanwhile. The application output is discarded, so that the console
+ * does not take part in the measurement.
+ * <p>
+ * The only argument is an optional regular expression selecting the scenarios to run. The number of warmup and
+ * measured iterations can be changed with the macrobenchmark.warmup and macrobenchmark.iterations system properties.
+ */
+public class StartupMacrobenchmark {
+    private static final int MB = 1024 * 1024;
+    private static final int WARMUP = Integer.getInteger("macrobenchmark.warmup", 2);
+    private static final int ITERATIONS = Integer.getInteger("macrobenchmark.iterations", 5);
+    private static final List<Scenario> SCENARIOS = Arrays.asList(
+            new Scenario("console-quiet", false, false, "startupDelay=200"),
+            new Scenario("console-verbose", false, false, "outputBytes=" + 32 * MB, "lineLength=120"),
+            new Scenario("console-long-lines", false, false, "outputBytes=" + 16 * MB, "lineLength=" + 256 * 1024),
+            new Scenario("console-crash", false, true, "outputBytes=" + MB, "crash=true"),
+            new Scenario("web-immediate", true, false),
+            new Scenario("web-delayed-bind", true, false, "bindDelay=2000"),
+            new Scenario("web-crash", true, true, "crash=true"));
+
+    private final AbstractProject project = (AbstractProject) ProjectBuilder.builder().build();
+    private int createdTasks = 0;
+
+    public static void main(String[] args) throws Exception {
+        Pattern include = Pattern.compile(args.length > 0 ? args[0] : "");
+        StartupMacrobenchmark benchmark = new StartupMacrobenchmark();
+        System.out.println(String.format(Locale.ROOT, "%-20s %10s %10s %10s %10s %10s",
+                "Scenario", "Wall ms", "Min ms", "Max ms", "CPU ms", "Alloc MB"));
+        for (Scenario scenario : SCENARIOS) {
+            if (include.matcher(scenario.name).find()) {
+                benchmark.run(scenario);
+            }
+        }
+        System.exit(0);
+    }
+
+    private void run(Scenario scenario) throws IOException, URISyntaxException {
+        List<Long> wallTimes = new ArrayList<Long>();
+        List<Long> cpuTimes = new ArrayList<Long>();
+        List<Long> allocations = new ArrayList<Long>();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            AbstractPollingExecAsyncTask<?> task = createTask(scenario);
+            long cpuTime = getProcessCpuTime();
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                task.exec();
+            } catch (RuntimeException e) {
+                if (!scenario.failing) {
+                    throw e;
+                }
+                failed = true;
+            }
+            long wallTime = System.nanoTime() - start;
+            cpuTime = getProcessCpuTime() - cpuTime;
+            allocated = getAllocatedBytes() - allocated;
+            task.terminate();
+            if (scenario.failing && !failed) {
+                throw new IllegalStateException("The application has not failed in " + scenario.name);
+            }
+            if (i >= WARMUP) {
+                wallTimes.add(wallTime);
+                cpuTimes.add(cpuTime);
+                allocations.add(allocated);
+            }
+        }
+        Collections.sort(wallTimes);
+        System.out.println(String.format(Locale.ROOT, "%-20s %10.1f %10.1f %10.1f %10.1f %10.1f",
+                scenario.name,
+                median(wallTimes) / 1e6,
+                wallTimes.get(0) / 1e6,
+                wallTimes.get(wallTimes.size() - 1) / 1e6,
+                median(cpuTimes) / 1e6,
+                median(allocations) / (double) MB));
+    }
+
+    private AbstractPollingExecAsyncTask<?> createTask(Scenario scenario) throws IOException, URISyntaxException {
+        List<String> commandLine = new ArrayList<String>();
+        commandLine.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        commandLine.add("-cp");
+        commandLine.add(new File(SyntheticApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+        commandLine.add(SyntheticApplication.class.getName());
+        commandLine.addAll(Arrays.asList(scenario.arguments));
+
+        AbstractPollingExecAsyncTask<?> task;
+        if (scenario.web) {
+            int port = findFreePort();
+            commandLine.add("httpPort=" + port);
+            StartWebApplicationAsync webTask = createTask(StartWebApplicationAsync.class, scenario);
+            webTask.setApplicationUrl("http://127.0.0.1:" + port + "/");
+            task = webTask;
+        } else {
+            StartConsoleApplicationAsync consoleTask = createTask(StartConsoleApplicationAsync.class, scenario);
+            consoleTask.setPattern(SyntheticApplication.READY_LINE);
+            consoleTask.setFailurePattern(SyntheticApplication.FAILURE_LINE);
+            task = consoleTask;
+        }
+        task.commandLine(commandLine);
+        task.setTimeout(120);
+        task.setStandardOutput(new NullOutputStream());
+        task.setErrorOutput(new NullOutputStream());
+        task.setStartupReport(false);
+        return task;
+    }
+
+    private <T extends AbstractTask> T createTask(Class<T> type, Scenario scenario) {
+        Task task = project
+                .getServices()
+                .get(ITaskFactory.class)
+                .createTask(GUtil.map(Task.TASK_TYPE, type, Task.TASK_NAME, scenario.name + "-" + ++createdTasks));
+        return type.cast(task);
+    }
+
+    private static int findFreePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static long getProcessCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    /**
+     * Sums the bytes allocated by all live threads, threads which have finished meanwhile are not accounted for.
+     */
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<Long>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static class Scenario {
+        private final String name;
+        private final boolean web;
+        private final boolean failing;
+        private final String[] arguments;
+
+        Scenario(String name, boolean web, boolean failing, String... arguments) {
+            this.name = name;
+            this.web = web;
+            this.failing = failing;
+            this.arguments = arguments;
+        }
+    }
+}
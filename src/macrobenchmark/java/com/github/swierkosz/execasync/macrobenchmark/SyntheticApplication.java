@@ -0,0 +1,110 @@
+package com.github.swierkosz.execasync.macrobenchmark;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application started by the macrobenchmark, configured with name=value arguments:
+ * <ul>
+ * <li>startupDelay - milliseconds to wait before writing anything</li>
+ * <li>outputBytes - number of bytes written to the standard output before becoming ready</li>
+ * <li>lineLength - length of the written lines in bytes, including the line feed</li>
+ * <li>crash - if true, the application exits with code 1 after the output instead of becoming ready</li>
+ * <li>httpPort - port on which a web server answering 200 is started, 0 for none</li>
+ * <li>bindDelay - milliseconds to wait before the web server is started</li>
+ * </ul>
+ * Once ready, it prints {@link #READY_LINE} and runs until it is terminated.
+ */
+public class SyntheticApplication {
+    public static final String READY_LINE = "Started SyntheticApplication";
+    public static final String FAILURE_LINE = "APPLICATION FAILED TO START";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            String[] nameAndValue = arg.split("=", 2);
+            options.put(nameAndValue[0], nameAndValue[1]);
+        }
+        long startupDelay = getLong(options, "startupDelay");
+        long outputBytes = getLong(options, "outputBytes");
+        int lineLength = (int) Math.max(1, options.containsKey("lineLength") ? getLong(options, "lineLength") : 100);
+        boolean crash = Boolean.parseBoolean(options.get("crash"));
+        int httpPort = (int) getLong(options, "httpPort");
+        long bindDelay = getLong(options, "bindDelay");
+
+        Thread.sleep(startupDelay);
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 64 * 1024), false, "UTF-8");
+        writeOutput(out, outputBytes, lineLength);
+        if (crash) {
+            out.println(FAILURE_LINE);
+            out.flush();
+            System.exit(1);
+        }
+        if (httpPort > 0) {
+            Thread.sleep(bindDelay);
+            startWebServer(httpPort);
+        }
+        out.println(READY_LINE);
+        out.flush();
+        Thread.sleep(Long.MAX_VALUE);
+    }
+
+    private static void writeOutput(PrintStream out, long outputBytes, int lineLength) {
+        byte[] line = new byte[lineLength];
+        for (int i = 0; i < lineLength - 1; i++) {
+            line[i] = (byte) ('a' + i % 26);
+        }
+        line[lineLength - 1] = '\n';
+        for (long written = 0; written < outputBytes; written += lineLength) {
+            out.write(line, 0, (int) Math.min(lineLength, outputBytes - written));
+        }
+        if (outputBytes % lineLength != 0) {
+            out.write('\n');
+        }
+    }
+
+    private static void startWebServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream body = exchange.getResponseBody();
+                body.write("OK".getBytes("UTF-8"));
+                body.close();
+            }
+        });
+        server.start();
+    }
+
+    private static long getLong(Map<String, String> options, String name) {
+        String value = options.get(name);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+}
@@ -18,6 +18,11 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.process.ProcFileSystem;
+import com.github.swierkosz.execasync.process.ProcessIds;
+import com.github.swierkosz.execasync.process.ProcessTree;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.file.DefaultFileOperations;
 import org.gradle.api.tasks.TaskAction;
@@ -33,15 +38,29 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> extends ConventionTask implements ExecSpec {
 
     private final Class<T> taskType;
     private ExecHandleBuilder execHandleBuilder = new ExecHandleBuilder(getDefaultFileOperations().getFileResolver());
     private ExecHandle execHandle;
-    private ExecResult execResult;
+    private volatile ExecResult execResult;
+    private final List<AbstractExecAsyncTask<?>> startsAfter = new ArrayList<AbstractExecAsyncTask<?>>();
+    private boolean terminateProcessTree = false;
+    private int gracePeriod = 10;
+    private int terminationTimeout = 30;
+    private ProcFileSystem procFileSystem = new ProcFileSystem();
+    private ProcessTree processTree;
+    private Integer sessionLeader;
+    private Long sessionLeaderStartTime;
 
     public AbstractExecAsyncTask(Class<T> taskType) {
         this.taskType = taskType;
@@ -56,12 +75,44 @@ public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> ext
         this.execHandleBuilder = execHandleBuilder;
     }
 
+    protected void setProcFileSystem(ProcFileSystem procFileSystem) {
+        this.procFileSystem = procFileSystem;
+    }
+
+    protected void setProcessTree(ProcessTree processTree) {
+        this.processTree = processTree;
+    }
+
     /**
      * Starts process.
      */
     @TaskAction
     protected void exec() {
-        execHandle = execHandleBuilder.build();
+        if (launchApplication()) {
+            awaitApplication();
+        }
+    }
+
+    /**
+     * Makes the application available, by starting it unless it can be reused.
+     *
+     * @return true if the process has been started and should be awaited
+     */
+    boolean launchApplication() {
+        return startApplication();
+    }
+
+    /**
+     * Starts process without waiting for it.
+     *
+     * @return true if the process has been started
+     */
+    protected boolean startApplication() {
+        List<String> commandLine = execHandleBuilder.getCommandLine();
+        File setsid = terminateProcessTree && !commandLine.isEmpty() ? findSetsid() : null;
+        sessionLeader = null;
+        sessionLeaderStartTime = null;
+        execHandle = setsid == null ? execHandleBuilder.build() : buildExecHandleInSession(setsid, commandLine);
         execHandle.addListener(new ExecHandleListener() {
             @Override
             public void executionStarted(ExecHandle execHandle) {
@@ -71,9 +122,132 @@ public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> ext
             @Override
             public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
                 setExecResult(execResult);
+                processFinished();
             }
         });
         execHandle.start();
+        if (setsid != null) {
+            sessionLeader = ProcessIds.getPid(execHandle, commandLine, procFileSystem);
+            if (sessionLeader != null) {
+                sessionLeaderStartTime = procFileSystem.getStartTime(sessionLeader);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the exec handle starting the process by setsid in a new session, so that its descendants can be found
+     * even after their parents have exited.
+     */
+    private ExecHandle buildExecHandleInSession(File setsid, List<String> commandLine) {
+        List<String> sessionCommandLine = new ArrayList<String>();
+        sessionCommandLine.add(setsid.getPath());
+        sessionCommandLine.addAll(commandLine);
+        execHandleBuilder.setCommandLine(sessionCommandLine);
+        try {
+            return execHandleBuilder.build();
+        } finally {
+            execHandleBuilder.setCommandLine(commandLine);
+        }
+    }
+
+    private File findSetsid() {
+        if (!procFileSystem.isSupported()) {
+            return null;
+        }
+        for (String directory : new String[]{"/usr/bin", "/bin"}) {
+            File setsid = new File(directory, "setsid");
+            if (setsid.canExecute()) {
+                return setsid;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Blocks until the started process is ready, a plain process is ready as soon as it has been started.
+     */
+    protected void awaitApplication() {
+    }
+
+    /**
+     * Returns the tasks whose applications have to be ready before this application is started.
+     *
+     * @return prerequisite tasks
+     */
+    public List<AbstractExecAsyncTask<?>> getStartsAfter() {
+        return Collections.unmodifiableList(startsAfter);
+    }
+
+    /**
+     * Declares that this application is started only after the applications of the given tasks are ready. Standalone
+     * tasks simply depend on the given tasks, while {@link StartApplicationGroupAsync} starts each member as soon as
+     * all its prerequisites are ready.
+     *
+     * @param tasks prerequisite tasks
+     * @return this
+     * @throws IllegalArgumentException if the relation would form a cycle
+     */
+    public T startsAfter(AbstractExecAsyncTask<?>... tasks) {
+        for (AbstractExecAsyncTask<?> task : tasks) {
+            List<AbstractExecAsyncTask<?>> path = task.findStartsAfterPath(this, new HashSet<AbstractExecAsyncTask<?>>());
+            if (path != null) {
+                StringBuilder cycle = new StringBuilder(getName());
+                for (AbstractExecAsyncTask<?> element : path) {
+                    cycle.append(" -> ").append(element.getName());
+                }
+                throw new IllegalArgumentException("Cyclic startsAfter relation: " + cycle);
+            }
+            startsAfter.add(task);
+        }
+        dependsOn((Object[]) tasks);
+        return taskType.cast(this);
+    }
+
+    /**
+     * Finds a chain of startsAfter relations leading from this task to the given one.
+     *
+     * @return the chain starting with this task and ending with the given one, or null if there is none
+     */
+    private List<AbstractExecAsyncTask<?>> findStartsAfterPath(AbstractExecAsyncTask<?> target,
+                                                               Set<AbstractExecAsyncTask<?>> visited) {
+        if (this == target) {
+            return new ArrayList<AbstractExecAsyncTask<?>>(Collections.<AbstractExecAsyncTask<?>>singletonList(this));
+        }
+        if (!visited.add(this)) {
+            return null;
+        }
+        for (AbstractExecAsyncTask<?> prerequisite : startsAfter) {
+            List<AbstractExecAsyncTask<?>> path = prerequisite.findStartsAfterPath(target, visited);
+            if (path != null) {
+                path.add(0, this);
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the given tasks wait for the application right before their own actions, after all their other
+     * dependencies have been executed. It is usually combined with
+     * {@link AbstractPollingExecAsyncTask#setSpawnOnly(boolean) spawnOnly}.
+     *
+     * @param tasks tasks using the application
+     * @return this
+     */
+    public T readyBefore(Task... tasks) {
+        for (Task task : tasks) {
+            task.dependsOn(this);
+            task.doFirst(new Action<Task>() {
+                @Override
+                public void execute(Task task) {
+                    if (isStarted()) {
+                        awaitApplication();
+                    }
+                }
+            });
+        }
+        return taskType.cast(this);
     }
 
     /**
@@ -299,6 +473,12 @@ public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> ext
         this.execResult = execResult;
     }
 
+    /**
+     * Invoked by the thread which has noticed that the process has finished.
+     */
+    protected void processFinished() {
+    }
+
     /**
      * Waits for the process to finish.
      *
@@ -313,7 +493,68 @@ public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> ext
     }
 
     /**
-     * Terminates the process.
+     * Returns true when {@link #terminate()} terminates the process together with all its descendants.
+     *
+     * @return true if the whole process tree is terminated
+     */
+    public boolean isTerminateProcessTree() {
+        return terminateProcessTree;
+    }
+
+    /**
+     * Controls whether {@link #terminate()} terminates the process together with all its descendants, which is
+     * supported on Linux only. Otherwise only the process itself is terminated. The process is then started in its own
+     * session, so signals sent to the process group of Gradle, e.g. on Ctrl-C, no longer reach it.
+     *
+     * @param terminateProcessTree set to true if the whole process tree should be terminated
+     */
+    public void setTerminateProcessTree(boolean terminateProcessTree) {
+        this.terminateProcessTree = terminateProcessTree;
+    }
+
+    /**
+     * Returns time given to the processes to terminate gracefully.
+     *
+     * @return grace period in seconds
+     */
+    public int getGracePeriod() {
+        return gracePeriod;
+    }
+
+    /**
+     * Sets time given to the processes to terminate after SIGTERM, before they are killed with SIGKILL.
+     *
+     * @param gracePeriod grace period in seconds
+     */
+    public void setGracePeriod(int gracePeriod) {
+        this.gracePeriod = gracePeriod;
+    }
+
+    /**
+     * Returns time after which termination of the process tree is given up.
+     *
+     * @return termination timeout in seconds
+     */
+    public int getTerminationTimeout() {
+        return terminationTimeout;
+    }
+
+    /**
+     * Sets time after which termination of the process tree is given up, counted from the moment termination has
+     * been requested.
+     *
+     * @param terminationTimeout termination timeout in seconds
+     */
+    public void setTerminationTimeout(int terminationTimeout) {
+        this.terminationTimeout = terminationTimeout;
+    }
+
+    /**
+     * Terminates the process. If the process tree is terminated, it returns only once the process and all its
+     * descendants are gone, including those left behind by a process which has already exited.
+     *
+     * @throws com.github.swierkosz.execasync.process.ProcessTreeStillRunningException if any process of the tree is
+     *                                                                                 still running after the timeout
      */
     public void terminate() {
         if (execHandle == null) {
@@ -321,11 +562,50 @@ public abstract class AbstractExecAsyncTask<T extends AbstractExecAsyncTask> ext
         }
 
         ExecHandleState state = execHandle.getState();
-        if (state == ExecHandleState.STARTED || state == ExecHandleState.DETACHED) {
+        boolean running = state == ExecHandleState.STARTED || state == ExecHandleState.DETACHED;
+        Integer pid = sessionLeader;
+        if (pid == null && running && terminateProcessTree && procFileSystem.isSupported()) {
+            pid = ProcessIds.getPid(execHandle, getCommandLine(), procFileSystem);
+        }
+        if (pid != null) {
+            getProcessTree().terminate(pid, sessionLeader != null ? sessionLeaderStartTime : null,
+                    sessionLeader != null, gracePeriod, terminationTimeout, SECONDS);
+            if (state == ExecHandleState.STARTED) {
+                execHandle.waitForFinish();
+            }
+        } else if (running) {
             execHandle.abort();
         }
     }
 
+    /**
+     * Returns information whether the process has been started by this task.
+     *
+     * @return true if the process has been started, even if it is no longer running
+     */
+    boolean isStarted() {
+        return execHandle != null;
+    }
+
+    ExecHandle getExecHandle() {
+        return execHandle;
+    }
+
+    Class<T> getTaskType() {
+        return taskType;
+    }
+
+    ProcFileSystem getProcFileSystem() {
+        return procFileSystem;
+    }
+
+    ProcessTree getProcessTree() {
+        if (processTree == null) {
+            processTree = new ProcessTree(procFileSystem);
+        }
+        return processTree;
+    }
+
     /**
      * Returns information whether the process is still running.
      *
@@ -16,21 +16,75 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.console.AsyncFileOutputStream;
+import com.github.swierkosz.execasync.console.AsyncOutputStream;
+import com.github.swierkosz.execasync.console.FanOutOutputStream;
+import com.github.swierkosz.execasync.console.OverflowPolicy;
+import com.github.swierkosz.execasync.console.TailBuffer;
+import com.github.swierkosz.execasync.metrics.StartupHistory;
+import com.github.swierkosz.execasync.metrics.StartupMetrics;
+import com.github.swierkosz.execasync.metrics.StartupRegressionException;
 import com.github.swierkosz.execasync.polling.ApplicationTerminatedException;
+import com.github.swierkosz.execasync.polling.ApplicationTimeoutException;
 import com.github.swierkosz.execasync.polling.Poller;
+import com.github.swierkosz.execasync.polling.PollingStrategies;
+import com.github.swierkosz.execasync.polling.PollingStrategy;
+import com.github.swierkosz.execasync.process.ProcessIds;
+import com.github.swierkosz.execasync.reuse.Fingerprint;
+import com.github.swierkosz.execasync.reuse.InstanceRegistry;
+import com.github.swierkosz.execasync.reuse.RegisteredInstance;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.streams.SafeStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Callable;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 public abstract class AbstractPollingExecAsyncTask<T extends AbstractPollingExecAsyncTask> extends AbstractExecAsyncTask<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractPollingExecAsyncTask.class);
+    private static final int MIN_STARTUP_HISTORY = 10;
 
     private int timeout = 300;
+    private PollingStrategy pollingStrategy = PollingStrategies.fixedInterval(100, MILLISECONDS);
     private Poller poller = new Poller();
+    private boolean spawnOnly = false;
+    private boolean reuse = false;
+    private volatile boolean ready = false;
+    private volatile RegisteredInstance reusedInstance;
+    private InstanceRegistry instanceRegistry;
+    private int outputTailSize = 16 * 1024;
+    private OutputStream standardOutput = SafeStreams.systemOut();
+    private OutputStream errorOutput = SafeStreams.systemErr();
+    private final FanOutOutputStream standardOutputFanOut = new FanOutOutputStream();
+    private final FanOutOutputStream errorOutputFanOut = new FanOutOutputStream();
+    private final List<OutputStream> standardOutputSinksUntilReady = new ArrayList<OutputStream>();
+    private final List<OutputStream> errorOutputSinksUntilReady = new ArrayList<OutputStream>();
+    private final List<AsyncOutputStream> asyncOutputs = new ArrayList<AsyncOutputStream>();
+    private boolean asyncOutput = false;
+    private OverflowPolicy outputOverflowPolicy = OverflowPolicy.BLOCK;
+    private TailBuffer outputTail;
+    private long startedAt;
+    private boolean startupReport = false;
+    private volatile StartupMetrics startupMetrics;
+    private boolean startupHistory = false;
+    private int startupRegressionPercentile = 95;
+    private boolean failOnStartupRegression = false;
 
     public AbstractPollingExecAsyncTask(Class<T> taskType) {
         super(taskType);
@@ -55,29 +109,614 @@ public abstract class AbstractPollingExecAsyncTask<T extends AbstractPollingExec
     }
 
     /**
-     * Starts process, blocking until the process has started.
+     * Returns the strategy deciding how often the application is checked.
+     *
+     * @return polling strategy
+     */
+    public PollingStrategy getPollingStrategy() {
+        return pollingStrategy;
+    }
+
+    /**
+     * Sets the strategy deciding how often the application is checked, see {@link PollingStrategies}.
+     *
+     * @param pollingStrategy polling strategy
+     */
+    public void setPollingStrategy(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = pollingStrategy;
+    }
+
+    /**
+     * Returns the number of bytes of the last output kept for describing a failed startup.
+     *
+     * @return size of the output tail in bytes
+     */
+    public int getOutputTailSize() {
+        return outputTailSize;
+    }
+
+    /**
+     * Sets the number of bytes of the last standard and error output which is included in the exception thrown when
+     * the application has exited or has not become ready in time. The output is no longer kept once the application
+     * is ready.
+     *
+     * @param outputTailSize size of the output tail in bytes, 0 disables it
+     */
+    public void setOutputTailSize(int outputTailSize) {
+        this.outputTailSize = outputTailSize;
+    }
+
+    public boolean isAsyncOutput() {
+        return asyncOutput;
+    }
+
+    /**
+     * Controls whether the standard and error output are written by dedicated threads, so that a slow console does
+     * not delay matching the output or the application itself. The output waiting to be written is limited, see
+     * {@link #setOutputOverflowPolicy(OverflowPolicy)}.
+     *
+     * @param asyncOutput true if the output should be written asynchronously
+     */
+    public void setAsyncOutput(boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+    }
+
+    public OverflowPolicy getOutputOverflowPolicy() {
+        return outputOverflowPolicy;
+    }
+
+    /**
+     * Sets what happens to the output when the asynchronous output cannot keep up with the application.
+     *
+     * @param outputOverflowPolicy policy applied when the queue of the output is full
+     */
+    public void setOutputOverflowPolicy(OverflowPolicy outputOverflowPolicy) {
+        this.outputOverflowPolicy = outputOverflowPolicy;
+    }
+
+    /**
+     * Sets what happens to the output when the asynchronous output cannot keep up with the application.
+     *
+     * @param outputOverflowPolicy name of the policy, i.e. block, drop_oldest or sample
+     */
+    public void setOutputOverflowPolicy(String outputOverflowPolicy) {
+        this.outputOverflowPolicy = OverflowPolicy.valueOf(outputOverflowPolicy.toUpperCase(Locale.ROOT));
+    }
+
+    public boolean isStartupReport() {
+        return startupReport;
+    }
+
+    /**
+     * Controls whether the startup metrics are written as JSON to build/execasync/&lt;task name&gt;-startup.json once
+     * the application has become ready or has failed to. The report is not written by default.
+     *
+     * @param startupReport true if the report should be written
+     */
+    public void setStartupReport(boolean startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    public boolean isStartupHistory() {
+        return startupHistory;
+    }
+
+    /**
+     * Controls whether the time to ready of each startup is recorded in .gradle/execasync under the root project
+     * directory and compared with the previous startups, which is off by default. Startups awaited later than they
+     * were started are not recorded.
+     *
+     * @param startupHistory true if the startups should be recorded and compared
+     */
+    public void setStartupHistory(boolean startupHistory) {
+        this.startupHistory = startupHistory;
+    }
+
+    public int getStartupRegressionPercentile() {
+        return startupRegressionPercentile;
+    }
+
+    /**
+     * Sets the percentile of the recorded times to ready above which a startup is reported as a regression.
+     *
+     * @param startupRegressionPercentile percentile between 1 and 100
+     */
+    public void setStartupRegressionPercentile(int startupRegressionPercentile) {
+        if (startupRegressionPercentile < 1 || startupRegressionPercentile > 100) {
+            throw new IllegalArgumentException("Startup regression percentile has to be between 1 and 100");
+        }
+        this.startupRegressionPercentile = startupRegressionPercentile;
+    }
+
+    public boolean isFailOnStartupRegression() {
+        return failOnStartupRegression;
+    }
+
+    /**
+     * Controls whether a startup regression fails the task instead of being logged as a warning.
+     *
+     * @param failOnStartupRegression true if the task should fail
+     */
+    public void setFailOnStartupRegression(boolean failOnStartupRegression) {
+        this.failOnStartupRegression = failOnStartupRegression;
+    }
+
+    /**
+     * Returns the metrics of the last startup of the application.
+     *
+     * @return metrics or null if the application has not been started by this task
+     */
+    public StartupMetrics getStartupMetrics() {
+        return startupMetrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T setStandardOutput(OutputStream outputStream) {
+        this.standardOutput = outputStream;
+        return getTaskType().cast(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getStandardOutput() {
+        return standardOutput;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T setErrorOutput(OutputStream outputStream) {
+        this.errorOutput = outputStream;
+        return getTaskType().cast(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     * Returns true when the task only starts the application without waiting for it.
+     *
+     * @return true if the task does not wait for the application
+     */
+    public boolean isSpawnOnly() {
+        return spawnOnly;
+    }
+
+    /**
+     * Controls whether the task only starts the application without waiting for it. The application is then awaited
+     * by {@link AwaitApplicationReady} or by tasks registered with {@link #readyBefore readyBefore}, so that its startup
+     * overlaps with other work.
+     *
+     * @param spawnOnly set to true if the task should not wait for the application
+     */
+    public void setSpawnOnly(boolean spawnOnly) {
+        this.spawnOnly = spawnOnly;
+    }
+
+    /**
+     * Returns true when an application started by an earlier build is reused.
+     *
+     * @return true if a running application is reused
+     */
+    public boolean isReuse() {
+        return reuse;
+    }
+
+    /**
+     * Controls whether an application started by an earlier build is reused. A ready application is recorded in a
+     * registry under the build directory, and a later build reuses it if it is still running, is still ready and
+     * has been started with the same command line, environment and working directory. Otherwise it is terminated and
+     * a new one is started. Reuse is supported on Linux only.
+     *
+     * @param reuse set to true if a running application should be reused
      */
+    public void setReuse(boolean reuse) {
+        this.reuse = reuse;
+    }
+
     @Override
     protected void exec() {
-        super.exec();
+        if (spawnOnly) {
+            if (launchApplication() && startupMetrics != null) {
+                startupMetrics.deferred();
+            }
+        } else {
+            super.exec();
+        }
+    }
+
+    @Override
+    boolean launchApplication() {
+        if (reuse && reuseRegisteredInstance()) {
+            return false;
+        }
+        return super.launchApplication();
+    }
+
+    /**
+     * Starts the application with its standard and error output written to the output targets, to the output tail
+     * and to the sinks attached until the application is ready.
+     */
+    @Override
+    protected boolean startApplication() {
+        StartupMetrics metrics = new StartupMetrics();
+        startupMetrics = metrics;
+        startedAt = System.nanoTime();
+        standardOutputFanOut.attach(createOutputSink(getStandardOutputTarget(), "standard output"));
+        errorOutputFanOut.attach(createOutputSink(getErrorOutputTarget(), "error output"));
+        attachUntilReady(metrics.createFirstOutputSink(), null);
+        outputTail = null;
+        if (outputTailSize > 0) {
+            outputTail = new TailBuffer(outputTailSize);
+            attachUntilReady(outputTail, outputTail);
+        }
+        super.setStandardOutput(standardOutputFanOut);
+        super.setErrorOutput(errorOutputFanOut);
+        boolean started = super.startApplication();
+        metrics.spawned();
+        return started;
+    }
+
+    /**
+     * Returns the stream to which the standard output of the application is written for its whole lifetime.
+     *
+     * @return the configured standard output by default
+     */
+    protected OutputStream getStandardOutputTarget() {
+        return standardOutput;
+    }
+
+    /**
+     * Returns the stream to which the error output of the application is written for its whole lifetime.
+     *
+     * @return the configured error output by default
+     */
+    protected OutputStream getErrorOutputTarget() {
+        return errorOutput;
+    }
+
+    /**
+     * Writes the output target on a dedicated thread if the output is asynchronous, unless the target is already
+     * written asynchronously.
+     */
+    private OutputStream createOutputSink(OutputStream target, String name) {
+        if (!asyncOutput || target instanceof AsyncFileOutputStream) {
+            return target;
+        }
+        AsyncOutputStream sink = new AsyncOutputStream(target, outputOverflowPolicy,
+                "ExecAsync " + name + " of " + getName());
+        asyncOutputs.add(sink);
+        return sink;
+    }
 
+    /**
+     * Attaches sinks to the standard and error output of the application, they are detached once the application is
+     * ready. Sinks attached before the application is started receive its whole output.
+     *
+     * @param standardOutputSink sink of the standard output or null
+     * @param errorOutputSink    sink of the error output or null
+     */
+    protected synchronized void attachUntilReady(OutputStream standardOutputSink, OutputStream errorOutputSink) {
+        if (standardOutputSink != null) {
+            standardOutputFanOut.attach(standardOutputSink);
+            standardOutputSinksUntilReady.add(standardOutputSink);
+        }
+        if (errorOutputSink != null) {
+            errorOutputFanOut.attach(errorOutputSink);
+            errorOutputSinksUntilReady.add(errorOutputSink);
+        }
+    }
+
+    /**
+     * Returns true if an application started by an earlier build is ready. The application has been recorded only
+     * once it was ready, so by default it is assumed to be still ready.
+     *
+     * @return true if the reused application is ready
+     */
+    protected boolean isReusedApplicationReady() {
+        return true;
+    }
+
+    @Override
+    public void terminate() {
+        RegisteredInstance instance = reusedInstance;
+        if (instance != null) {
+            terminateReusedInstance(instance);
+            getInstanceRegistry().delete(getName());
+            return;
+        }
+        super.terminate();
+        if (reuse) {
+            getInstanceRegistry().delete(getName());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        RegisteredInstance instance = reusedInstance;
+        if (instance != null) {
+            return getProcFileSystem().isAlive(instance.getPid(), instance.getStartTime());
+        }
+        return super.isRunning();
+    }
+
+    /**
+     * Blocks until the application is ready. Once the application has become ready, it returns immediately. The
+     * timeout is counted from the moment the application was started, so a deferred wait only gets the rest of it.
+     */
+    @Override
+    protected synchronized void awaitApplication() {
+        if (ready) {
+            return;
+        }
         LOGGER.info("Waiting for the application to become available...");
-        poller.awaitAtMost(timeout, SECONDS, new Callable<Boolean>() {
-            @Override
-            public Boolean call() throws Exception {
-                if (!isRunning()) {
-                    throw new ApplicationTerminatedException();
-                }
-
-                return isApplicationReady();
+        poller.setPollingStrategy(pollingStrategy);
+        long remaining = Math.max(SECONDS.toMillis(timeout) - getElapsedTime(), 0);
+        try {
+            try {
+                poller.awaitAtMost((int) Math.min(remaining, Integer.MAX_VALUE), MILLISECONDS, new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        if (!isRunning()) {
+                            throw new ApplicationTerminatedException(getExitCode(), getElapsedTime(), getOutputTail());
+                        }
+
+                        return probeApplication();
+                    }
+                });
+            } catch (ApplicationTimeoutException e) {
+                ApplicationTimeoutException timeout = new ApplicationTimeoutException(getElapsedTime(), getOutputTail());
+                timeout.initCause(e);
+                throw timeout;
+            }
+            if (startupMetrics != null) {
+                // kept only if the successful check has not been recorded, e.g. by a custom poller
+                startupMetrics.ready();
             }
-        });
+        } finally {
+            writeStartupReport();
+        }
+        detachSinksUntilReady();
+        ready = true;
         LOGGER.info("The application is now available");
+        if (reuse) {
+            registerInstance();
+        }
+        recordStartup();
     }
 
     protected abstract boolean isApplicationReady();
 
+    /**
+     * Checks whether the application is ready, recording the moment of the first successful check as the moment the
+     * application has become ready.
+     */
+    private boolean probeApplication() {
+        long start = System.nanoTime();
+        try {
+            boolean applicationReady = isApplicationReady();
+            if (applicationReady && startupMetrics != null) {
+                startupMetrics.ready();
+            }
+            return applicationReady;
+        } finally {
+            if (startupMetrics != null) {
+                startupMetrics.probed(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void writeStartupReport() {
+        StartupMetrics metrics = startupMetrics;
+        if (!startupReport || metrics == null) {
+            return;
+        }
+        File file = new File(getExecAsyncDirectory(), getName() + "-startup.json");
+        try {
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Cannot create directory " + file.getParentFile());
+            }
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(metrics.toJson(getName()));
+                writer.write('\n');
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write the startup report " + file, e);
+        }
+    }
+
+    /**
+     * Compares the time to ready with the recorded startups and records it. Regressions are only reported once there
+     * are enough startups to compare with. A deferred wait is skipped, its time to ready includes unrelated work.
+     */
+    private void recordStartup() {
+        StartupMetrics metrics = startupMetrics;
+        if (!startupHistory || metrics == null || metrics.getTimeToReady() == null) {
+            return;
+        }
+        if (metrics.isDeferred()) {
+            LOGGER.info("The startup is not recorded in the startup history, the application has been awaited later than it was started");
+            return;
+        }
+        double timeToReady = metrics.getTimeToReady();
+        StartupHistory history = new StartupHistory(getStartupHistoryFile());
+        List<Double> times = history.read();
+        try {
+            history.append(timeToReady);
+        } catch (IllegalStateException e) {
+            LOGGER.warn(e.getMessage(), e);
+        }
+        if (times.size() < MIN_STARTUP_HISTORY) {
+            return;
+        }
+        double threshold = StartupHistory.percentile(times, startupRegressionPercentile);
+        if (timeToReady > threshold) {
+            String message = String.format(Locale.ROOT,
+                    "The application has become ready in %.0f ms, above percentile %d of the last %d startups (%.0f ms)",
+                    timeToReady, startupRegressionPercentile, times.size(), threshold);
+            if (failOnStartupRegression) {
+                throw new StartupRegressionException(message);
+            }
+            LOGGER.warn(message);
+        }
+    }
+
+    private File getStartupHistoryFile() {
+        String name = getPath().replaceFirst("^:", "").replace(':', '_');
+        return new File(getProject().getRootDir(), ".gradle/execasync/" + name + "-startup-history.txt");
+    }
+
+    /**
+     * Returns the charset used to decode the output tail.
+     *
+     * @return charset of the application output
+     */
+    protected Charset getOutputCharset() {
+        return Charset.defaultCharset();
+    }
+
+    private Integer getExitCode() {
+        ExecResult execResult = getExecResult();
+        ExecHandle execHandle = getExecHandle();
+        if (execResult == null && execHandle != null) {
+            execResult = execHandle.waitForFinish();
+        }
+        return execResult == null ? null : execResult.getExitValue();
+    }
+
+    /**
+     * Returns the time since the application has been started.
+     *
+     * @return time in milliseconds
+     */
+    protected long getElapsedTime() {
+        return NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private void detachSinksUntilReady() {
+        for (OutputStream sink : standardOutputSinksUntilReady) {
+            standardOutputFanOut.detach(sink);
+        }
+        standardOutputSinksUntilReady.clear();
+        for (OutputStream sink : errorOutputSinksUntilReady) {
+            errorOutputFanOut.detach(sink);
+        }
+        errorOutputSinksUntilReady.clear();
+    }
+
+    /**
+     * Returns the last output of the application, both standard and error.
+     *
+     * @return output or null if it has not been kept
+     */
+    protected String getOutputTail() {
+        return outputTail == null ? null : outputTail.toString(getOutputCharset());
+    }
+
+    /**
+     * Wakes up the thread waiting for the application, so that it checks the application state immediately.
+     * Safe to be called from any thread.
+     */
+    protected void wakeUp() {
+        poller.wakeUp();
+    }
+
+    @Override
+    protected void processFinished() {
+        wakeUp();
+        for (AsyncOutputStream output : asyncOutputs) {
+            try {
+                output.finish();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot write the output of the application", e);
+            }
+            if (output.getDroppedBytes() > 0) {
+                LOGGER.warn(output.getDroppedBytes() + " bytes of the output have been dropped");
+            }
+        }
+        asyncOutputs.clear();
+    }
+
     protected void setPoller(Poller poller) {
         this.poller = poller;
     }
+
+    protected void setInstanceRegistry(InstanceRegistry instanceRegistry) {
+        this.instanceRegistry = instanceRegistry;
+    }
+
+    private boolean reuseRegisteredInstance() {
+        if (!getProcFileSystem().isSupported()) {
+            LOGGER.warn("Reusing applications is not supported on this platform, starting a new one...");
+            return false;
+        }
+        InstanceRegistry registry = getInstanceRegistry();
+        RegisteredInstance instance = registry.read(getName());
+        if (instance == null) {
+            return false;
+        }
+        if (!getProcFileSystem().isAlive(instance.getPid(), instance.getStartTime())) {
+            LOGGER.info("The registered application (" + instance + ") is no longer running, starting a new one...");
+            registry.delete(getName());
+            return false;
+        }
+        reusedInstance = instance;
+        if (instance.getFingerprint().equals(getFingerprint()) && isReusedApplicationReady()) {
+            LOGGER.info("Reusing the running application (" + instance + ")");
+            return true;
+        }
+        LOGGER.info("The registered application (" + instance + ") has changed or is not ready, restarting it...");
+        terminate();
+        reusedInstance = null;
+        return false;
+    }
+
+    private void registerInstance() {
+        if (!getProcFileSystem().isSupported()) {
+            return;
+        }
+        Integer pid = ProcessIds.getPid(getExecHandle(), getCommandLine(), getProcFileSystem());
+        Long startTime = pid == null ? null : getProcFileSystem().getStartTime(pid);
+        if (startTime == null) {
+            LOGGER.warn("Cannot determine the pid of the application, it won't be reused by later builds");
+            return;
+        }
+        getInstanceRegistry().write(getName(), new RegisteredInstance(pid, startTime, getFingerprint()));
+    }
+
+    private void terminateReusedInstance(RegisteredInstance instance) {
+        if (getProcFileSystem().isAlive(instance.getPid(), instance.getStartTime())) {
+            getProcessTree().terminate(instance.getPid(), instance.getStartTime(), false, getGracePeriod(),
+                    getTerminationTimeout(), SECONDS);
+        }
+    }
+
+    private String getFingerprint() {
+        return Fingerprint.of(getCommandLine(), getEnvironment(), getWorkingDir());
+    }
+
+    private InstanceRegistry getInstanceRegistry() {
+        if (instanceRegistry == null) {
+            instanceRegistry = new InstanceRegistry(getExecAsyncDirectory());
+        }
+        return instanceRegistry;
+    }
+
+    private File getExecAsyncDirectory() {
+        return new File(getProject().getBuildDir(), "execasync");
+    }
 }
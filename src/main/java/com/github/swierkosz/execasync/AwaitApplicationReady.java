@@ -0,0 +1,70 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.TaskAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Waits for applications started by {@link AbstractPollingExecAsyncTask#setSpawnOnly(boolean) spawn only} tasks to
+ * become ready. The applications start in the background while other tasks run, and only tasks depending on this one
+ * wait for them.
+ */
+public class AwaitApplicationReady extends ConventionTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwaitApplicationReady.class);
+
+    private final List<AbstractExecAsyncTask<?>> applications = new ArrayList<AbstractExecAsyncTask<?>>();
+
+    /**
+     * Returns the tasks whose applications are awaited.
+     *
+     * @return start tasks
+     */
+    public List<AbstractExecAsyncTask<?>> getApplications() {
+        return Collections.unmodifiableList(applications);
+    }
+
+    /**
+     * Adds tasks whose applications are awaited, this task depends on them.
+     *
+     * @param applications start tasks
+     * @return this
+     */
+    public AwaitApplicationReady applications(AbstractExecAsyncTask<?>... applications) {
+        Collections.addAll(this.applications, applications);
+        dependsOn((Object[]) applications);
+        return this;
+    }
+
+    @TaskAction
+    protected void exec() {
+        for (AbstractExecAsyncTask<?> application : applications) {
+            if (application.isStarted()) {
+                application.awaitApplication();
+            } else {
+                LOGGER.info("The application of " + application.getName() + " has not been started, it won't be awaited");
+            }
+        }
+    }
+}
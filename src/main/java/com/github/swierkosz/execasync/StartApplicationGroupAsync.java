@@ -0,0 +1,269 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.swierkosz.execasync.group.ApplicationGroupFailedException;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.TaskAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Starts several applications at the same time and waits for all of them to become ready, so that the whole group
+ * takes about as long as its slowest member. Members are regular ExecAsync tasks which are configured as usual, but
+ * started only by the group. A member declaring {@link AbstractExecAsyncTask#startsAfter startsAfter} other members
+ * is started as soon as all of them are ready. When any member fails, the remaining members stop waiting, all started
+ * members are terminated and the startup time of each member is reported.
+ */
+public class StartApplicationGroupAsync extends ConventionTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartApplicationGroupAsync.class);
+    private static final long TERMINATION_TIMEOUT = 10;
+
+    private final List<AbstractExecAsyncTask<?>> members = new ArrayList<AbstractExecAsyncTask<?>>();
+
+    public StartApplicationGroupAsync() {
+        dependsOn(new Callable<List<AbstractExecAsyncTask<?>>>() {
+            @Override
+            public List<AbstractExecAsyncTask<?>> call() {
+                return getExternalPrerequisites();
+            }
+        });
+    }
+
+    /**
+     * Returns the tasks started by this group.
+     *
+     * @return member tasks
+     */
+    public List<AbstractExecAsyncTask<?>> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Sets the tasks started by this group. The tasks should not be executed on their own.
+     *
+     * @param members member tasks
+     */
+    public void setMembers(Iterable<? extends AbstractExecAsyncTask<?>> members) {
+        this.members.clear();
+        for (AbstractExecAsyncTask<?> member : members) {
+            this.members.add(member);
+        }
+    }
+
+    /**
+     * Adds tasks started by this group. The tasks should not be executed on their own.
+     *
+     * @param members member tasks
+     * @return this
+     */
+    public StartApplicationGroupAsync members(AbstractExecAsyncTask<?>... members) {
+        Collections.addAll(this.members, members);
+        return this;
+    }
+
+    @TaskAction
+    protected void exec() {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Missing members");
+        }
+
+        Map<AbstractExecAsyncTask<?>, MemberStartup> startups = new LinkedHashMap<AbstractExecAsyncTask<?>, MemberStartup>();
+        for (AbstractExecAsyncTask<?> member : members) {
+            startups.put(member, new MemberStartup(member));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(members.size(), new MemberThreadFactory());
+        CompletionService<MemberStartup> completionService = new ExecutorCompletionService<MemberStartup>(executor);
+        try {
+            int submitted = submitStartable(startups, completionService);
+            for (int completed = 0; completed < submitted; completed++) {
+                try {
+                    completionService.take().get();
+                } catch (ExecutionException e) {
+                    throw fail(startups.values(), executor, e.getCause());
+                }
+                submitted += submitStartable(startups, completionService);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(startups.values(), executor, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("The application group is now available:\n" + report(startups.values()));
+    }
+
+    /**
+     * Submits members which have not been submitted yet and whose prerequisites within the group are all ready.
+     *
+     * @return number of submitted members
+     */
+    private static int submitStartable(Map<AbstractExecAsyncTask<?>, MemberStartup> startups,
+                                       CompletionService<MemberStartup> completionService) {
+        int submitted = 0;
+        for (MemberStartup startup : startups.values()) {
+            if (!startup.isSubmitted() && arePrerequisitesReady(startup.member, startups)) {
+                startup.submit(completionService);
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    private static boolean arePrerequisitesReady(AbstractExecAsyncTask<?> member,
+                                                 Map<AbstractExecAsyncTask<?>, MemberStartup> startups) {
+        for (AbstractExecAsyncTask<?> prerequisite : member.getStartsAfter()) {
+            MemberStartup prerequisiteStartup = startups.get(prerequisite);
+            if (prerequisiteStartup != null && !prerequisiteStartup.ready) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns prerequisites of the members which are not members themselves, they have to be executed before the
+     * group.
+     */
+    private List<AbstractExecAsyncTask<?>> getExternalPrerequisites() {
+        List<AbstractExecAsyncTask<?>> prerequisites = new ArrayList<AbstractExecAsyncTask<?>>();
+        for (AbstractExecAsyncTask<?> member : members) {
+            for (AbstractExecAsyncTask<?> prerequisite : member.getStartsAfter()) {
+                if (!members.contains(prerequisite) && !prerequisites.contains(prerequisite)) {
+                    prerequisites.add(prerequisite);
+                }
+            }
+        }
+        return prerequisites;
+    }
+
+    private RuntimeException fail(Collection<MemberStartup> startups, ExecutorService executor, Throwable cause) {
+        String report = report(startups);
+        LOGGER.info("Terminating the application group...");
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(TERMINATION_TIMEOUT, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (MemberStartup startup : startups) {
+            if (startup.member.isRunning()) {
+                try {
+                    startup.member.terminate();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Cannot terminate " + startup.member.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        return new ApplicationGroupFailedException(report, cause);
+    }
+
+    private static String report(Collection<MemberStartup> startups) {
+        StringBuilder report = new StringBuilder();
+        for (MemberStartup startup : startups) {
+            if (report.length() > 0) {
+                report.append('\n');
+            }
+            report.append("  ").append(startup.describe());
+        }
+        return report.toString();
+    }
+
+    private static class MemberStartup implements Callable<MemberStartup> {
+        private final AbstractExecAsyncTask<?> member;
+        private volatile boolean submitted;
+        private volatile long submittedAt;
+        private volatile long finishedAt;
+        private volatile Throwable failure;
+        private volatile boolean ready;
+
+        MemberStartup(AbstractExecAsyncTask<?> member) {
+            this.member = member;
+        }
+
+        void submit(CompletionService<MemberStartup> completionService) {
+            submitted = true;
+            submittedAt = System.nanoTime();
+            completionService.submit(this);
+        }
+
+        boolean isSubmitted() {
+            return submitted;
+        }
+
+        @Override
+        public MemberStartup call() {
+            try {
+                if (member.launchApplication()) {
+                    member.awaitApplication();
+                }
+                ready = true;
+                return this;
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                finishedAt = System.nanoTime();
+            }
+        }
+
+        String describe() {
+            if (!isSubmitted()) {
+                return member.getName() + ": not started";
+            }
+            long end = finishedAt == 0 ? System.nanoTime() : finishedAt;
+            String elapsed = String.format(Locale.ROOT, "%.3f s", (end - submittedAt) / 1e9);
+            if (ready) {
+                return member.getName() + ": ready in " + elapsed;
+            } else if (failure != null) {
+                return member.getName() + ": failed after " + elapsed + " (" + failure.getMessage() + ")";
+            } else {
+                return member.getName() + ": not ready after " + elapsed;
+            }
+        }
+    }
+
+    private static class MemberThreadFactory implements ThreadFactory {
+        private final ThreadFactory delegate = Executors.defaultThreadFactory();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = delegate.newThread(runnable);
+            thread.setName("execasync-group-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
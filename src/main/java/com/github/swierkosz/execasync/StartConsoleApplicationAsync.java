@@ -16,115 +16,390 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.console.MatchMode;
+import com.github.swierkosz.execasync.console.NonClosingOutputStream;
 import com.github.swierkosz.execasync.console.PatternMatchingOutputStream;
+import com.github.swierkosz.execasync.console.PatternSet;
 import com.github.swierkosz.execasync.console.StreamFactory;
-import com.github.swierkosz.execasync.console.TeeOutputStream;
-import org.gradle.process.internal.streams.SafeStreams;
+import com.github.swierkosz.execasync.polling.ApplicationFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 public class StartConsoleApplicationAsync extends AbstractPollingExecAsyncTask<StartConsoleApplicationAsync> {
     private static final Logger LOGGER = LoggerFactory.getLogger(StartConsoleApplicationAsync.class);
-    private Pattern pattern = null;
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private MatchMode matchMode = MatchMode.ANY_OF;
+    private final List<Pattern> failurePatterns = new ArrayList<Pattern>();
+    private boolean terminateOnFailure = true;
+    private boolean literal = false;
+    private int maxLineLength = PatternMatchingOutputStream.DEFAULT_MAX_LINE_LENGTH;
+    private Charset charset = Charset.defaultCharset();
     private StreamFactory streamFactory = new StreamFactory();
-    private OutputStream standardOutput = SafeStreams.systemOut();
     private PatternMatchingOutputStream standardOutputMatcher;
-    private OutputStream errorOutput = SafeStreams.systemErr();
     private PatternMatchingOutputStream errorOutputMatcher;
+    private File logFile;
+    private volatile OutputStream logFileOutput;
 
     public StartConsoleApplicationAsync() {
         super(StartConsoleApplicationAsync.class);
     }
 
     /**
-     * {@inheritDoc}
+     * Returns the pattern to be matched against application logs.
+     *
+     * @return compiled Pattern, the first one if there are more
      */
-    @Override
-    public StartConsoleApplicationAsync setStandardOutput(OutputStream outputStream) {
-        this.standardOutput = outputStream;
+    public Pattern getPattern() {
+        return patterns.isEmpty() ? null : patterns.get(0);
+    }
+
+    /**
+     * Sets the pattern to be matched against application logs to check if application is ready.
+     *
+     * @param pattern compiled Pattern
+     */
+    public void setPattern(Pattern pattern) {
+        patterns.clear();
+        patterns.add(pattern);
+    }
+
+    /**
+     * Sets the pattern to be matched against application logs to check if application is ready.
+     *
+     * @param pattern regular expression
+     */
+    public void setPattern(String pattern) {
+        setPattern(Pattern.compile(pattern));
+    }
+
+    /**
+     * Returns the patterns to be matched against application logs.
+     *
+     * @return compiled Patterns
+     */
+    public List<Pattern> getPatterns() {
+        return Collections.unmodifiableList(patterns);
+    }
+
+    /**
+     * Sets the patterns to be matched against application logs to check if application is ready.
+     *
+     * @param patterns compiled Patterns or regular expressions
+     */
+    public void setPatterns(Iterable<?> patterns) {
+        this.patterns.clear();
+        for (Object pattern : patterns) {
+            this.patterns.add(toPattern(pattern));
+        }
+    }
+
+    /**
+     * Adds patterns to be matched against application logs to check if application is ready.
+     *
+     * @param patterns compiled Patterns or regular expressions
+     * @return this
+     */
+    public StartConsoleApplicationAsync patterns(Object... patterns) {
+        for (Object pattern : patterns) {
+            this.patterns.add(toPattern(pattern));
+        }
         return this;
     }
 
     /**
-     * {@inheritDoc}
+     * Returns how the patterns have to match for the application to be ready.
+     *
+     * @return match mode, {@link MatchMode#ANY_OF} unless set
      */
-    @Override
-    public OutputStream getStandardOutput() {
-        return standardOutput;
+    public MatchMode getMatchMode() {
+        return matchMode;
     }
 
     /**
-     * {@inheritDoc}
+     * Sets how the patterns have to match for the application to be ready.
+     *
+     * @param matchMode match mode
      */
-    @Override
-    public StartConsoleApplicationAsync setErrorOutput(OutputStream outputStream) {
-        this.errorOutput = outputStream;
+    public void setMatchMode(MatchMode matchMode) {
+        this.matchMode = matchMode;
+    }
+
+    /**
+     * Sets how the patterns have to match for the application to be ready.
+     *
+     * @param matchMode name of the match mode: ANY_OF, ALL_OF or IN_ORDER
+     */
+    public void setMatchMode(String matchMode) {
+        this.matchMode = MatchMode.valueOf(matchMode.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the patterns which identify the application as failed when matched against application logs.
+     *
+     * @return compiled Patterns
+     */
+    public List<Pattern> getFailurePatterns() {
+        return Collections.unmodifiableList(failurePatterns);
+    }
+
+    /**
+     * Sets the pattern which identifies the application as failed, so that the task does not wait for the timeout.
+     *
+     * @param failurePattern compiled Pattern
+     */
+    public void setFailurePattern(Pattern failurePattern) {
+        failurePatterns.clear();
+        failurePatterns.add(failurePattern);
+    }
+
+    /**
+     * Sets the pattern which identifies the application as failed, so that the task does not wait for the timeout.
+     *
+     * @param failurePattern regular expression
+     */
+    public void setFailurePattern(String failurePattern) {
+        setFailurePattern(Pattern.compile(failurePattern));
+    }
+
+    /**
+     * Sets the patterns which identify the application as failed, so that the task does not wait for the timeout.
+     *
+     * @param failurePatterns compiled Patterns or regular expressions
+     */
+    public void setFailurePatterns(Iterable<?> failurePatterns) {
+        this.failurePatterns.clear();
+        for (Object failurePattern : failurePatterns) {
+            this.failurePatterns.add(toPattern(failurePattern));
+        }
+    }
+
+    /**
+     * Adds patterns which identify the application as failed, so that the task does not wait for the timeout.
+     *
+     * @param failurePatterns compiled Patterns or regular expressions
+     * @return this
+     */
+    public StartConsoleApplicationAsync failurePatterns(Object... failurePatterns) {
+        for (Object failurePattern : failurePatterns) {
+            this.failurePatterns.add(toPattern(failurePattern));
+        }
         return this;
     }
 
     /**
-     * {@inheritDoc}
+     * Returns true when the application is terminated after a failure pattern has matched.
+     *
+     * @return true if the application will be terminated on failure
      */
-    @Override
-    public OutputStream getErrorOutput() {
-        return errorOutput;
+    public boolean isTerminateOnFailure() {
+        return terminateOnFailure;
     }
 
     /**
-     * Returns the pattern to be matched against application logs.
+     * Controls whether the application is terminated after a failure pattern has matched.
      *
-     * @return compiled Pattern
+     * @param terminateOnFailure set to true if the application should be terminated on failure
      */
-    public Pattern getPattern() {
-        return pattern;
+    public void setTerminateOnFailure(boolean terminateOnFailure) {
+        this.terminateOnFailure = terminateOnFailure;
     }
 
     /**
-     * Sets the pattern to be matched against application logs to check if application is ready.
+     * Returns true when patterns are treated as literals.
      *
-     * @param pattern compiled Pattern
+     * @return true if patterns are matched literally
      */
-    public void setPattern(Pattern pattern) {
-        this.pattern = pattern;
+    public boolean isLiteral() {
+        return literal;
     }
 
     /**
-     * Sets the pattern to be matched against application logs to check if application is ready.
+     * Controls whether patterns are treated as literals instead of regular expressions. Literals are searched for
+     * directly in the application output, without decoding it. Patterns without any regular expression metacharacters
+     * are treated this way regardless of this setting.
      *
-     * @param pattern regular expression
+     * @param literal set to true if patterns should be matched literally
      */
-    public void setPattern(String pattern) {
-        this.pattern = Pattern.compile(pattern);
+    public void setLiteral(boolean literal) {
+        this.literal = literal;
+    }
+
+    /**
+     * Returns the maximum number of bytes of a single line of application logs that is matched.
+     *
+     * @return number of bytes
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    /**
+     * Sets the maximum number of bytes of a single line of application logs that is matched against regular
+     * expressions. The rest of a longer line is discarded, which bounds the memory used for application logs.
+     *
+     * @param maxLineLength number of bytes
+     */
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Returns the file to which the application output is written instead of the console.
+     *
+     * @return log file or null if the output is written to the console
+     */
+    public File getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Sets the file to which both standard and error output of the application are written instead of the console.
+     * The output is written by a dedicated thread in large batches, at least every 200 milliseconds, so that the
+     * application is never blocked by a slow disk. The file is truncated when the application is started and closed
+     * when it finishes.
+     *
+     * @param logFile log file, evaluated as per {@link org.gradle.api.Project#file(Object)}
+     */
+    public void setLogFile(Object logFile) {
+        this.logFile = logFile == null ? null : getProject().file(logFile);
+    }
+
+    /**
+     * Returns the charset used to decode application logs.
+     *
+     * @return charset, the platform default unless set
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Sets the charset used to decode application logs before matching them against the pattern.
+     *
+     * @param charset charset of the application output
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Sets the charset used to decode application logs before matching them against the pattern.
+     *
+     * @param charset name of the charset of the application output
+     */
+    public void setCharset(String charset) {
+        this.charset = Charset.forName(charset);
     }
 
     @Override
-    protected void exec() {
-        if (pattern == null) {
+    protected boolean startApplication() {
+        if (patterns.isEmpty()) {
             throw new IllegalArgumentException("Missing pattern");
         }
-        errorOutputMatcher = streamFactory.createPatternMatchingOutputStream(pattern);
-        TeeOutputStream teeErrorOutput = streamFactory.createTeeOutputStream(errorOutput, errorOutputMatcher);
-        super.setErrorOutput(teeErrorOutput);
+        PatternSet patternSet = new PatternSet(
+                literal ? toLiterals(patterns) : patterns,
+                matchMode,
+                literal ? toLiterals(failurePatterns) : failurePatterns);
+        patternSet.addListener(new Runnable() {
+            @Override
+            public void run() {
+                wakeUp();
+            }
+        });
+        logFileOutput = logFile == null ? null : createLogFileOutput();
 
-        standardOutputMatcher = streamFactory.createPatternMatchingOutputStream(pattern);
-        TeeOutputStream teeStandardOutput = streamFactory.createTeeOutputStream(standardOutput, standardOutputMatcher);
-        super.setStandardOutput(teeStandardOutput);
+        errorOutputMatcher = streamFactory.createPatternMatchingOutputStream(patternSet, charset, maxLineLength);
+        standardOutputMatcher = streamFactory.createPatternMatchingOutputStream(patternSet, charset, maxLineLength);
+        attachUntilReady(standardOutputMatcher, errorOutputMatcher);
 
         LOGGER.info("Starting the application...");
-        super.exec();
-        teeErrorOutput.detachRight();
-        teeStandardOutput.detachRight();
+        return super.startApplication();
+    }
+
+    /**
+     * Returns the log file shared with the error output. Gradle closes the target of each output once it has ended,
+     * so the log file is shielded from that and closed by {@link #processFinished()} when both outputs have ended.
+     */
+    @Override
+    protected OutputStream getStandardOutputTarget() {
+        return logFileOutput == null ? super.getStandardOutputTarget() : new NonClosingOutputStream(logFileOutput);
+    }
+
+    @Override
+    protected OutputStream getErrorOutputTarget() {
+        return logFileOutput == null ? super.getErrorOutputTarget() : new NonClosingOutputStream(logFileOutput);
+    }
+
+    @Override
+    protected Charset getOutputCharset() {
+        return charset;
+    }
+
+    @Override
+    protected void processFinished() {
+        super.processFinished();
+        OutputStream output = logFileOutput;
+        if (output != null) {
+            logFileOutput = null;
+            try {
+                output.close();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot write the log file " + logFile, e);
+            }
+        }
     }
 
     @Override
     protected boolean isApplicationReady() {
+        String failedLine = errorOutputMatcher.getFailedLine();
+        if (failedLine == null) {
+            failedLine = standardOutputMatcher.getFailedLine();
+        }
+        if (failedLine != null) {
+            ApplicationFailedException failure = new ApplicationFailedException(failedLine, getElapsedTime(),
+                    getOutputTail());
+            if (terminateOnFailure) {
+                LOGGER.info("Terminating the application...");
+                terminate();
+            }
+            throw failure;
+        }
+
         return errorOutputMatcher.isMatched() || standardOutputMatcher.isMatched();
     }
 
     protected void setStreamFactory(StreamFactory streamFactory) {
         this.streamFactory = streamFactory;
     }
+
+    private OutputStream createLogFileOutput() {
+        try {
+            LOGGER.info("Writing the application output to " + logFile);
+            return streamFactory.createAsyncFileOutputStream(logFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create the log file " + logFile, e);
+        }
+    }
+
+    private static List<Pattern> toLiterals(List<Pattern> patterns) {
+        List<Pattern> literals = new ArrayList<Pattern>();
+        for (Pattern pattern : patterns) {
+            literals.add(Pattern.compile(pattern.pattern(), pattern.flags() | Pattern.LITERAL));
+        }
+        return literals;
+    }
+
+    private static Pattern toPattern(Object pattern) {
+        return pattern instanceof Pattern ? (Pattern) pattern : Pattern.compile(pattern.toString());
+    }
 }
@@ -0,0 +1,170 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.swierkosz.execasync.tcp.TcpApplicationChecker;
+import com.github.swierkosz.execasync.tcp.TcpApplicationIsAlreadyAvailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class StartTcpApplicationAsync extends AbstractPollingExecAsyncTask<StartTcpApplicationAsync> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartTcpApplicationAsync.class);
+
+    private final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+    private int connectTimeout = TcpApplicationChecker.DEFAULT_TIMEOUT;
+    private boolean failIfAlreadyRunning = true;
+    private TcpApplicationChecker checker = new TcpApplicationChecker();
+
+    public StartTcpApplicationAsync() {
+        super(StartTcpApplicationAsync.class);
+    }
+
+    /**
+     * Returns the addresses which have to accept connections for the application to be ready.
+     *
+     * @return unresolved addresses
+     */
+    public List<InetSocketAddress> getAddresses() {
+        return Collections.unmodifiableList(addresses);
+    }
+
+    /**
+     * Sets the address which has to accept connections for the application to be ready.
+     *
+     * @param address host and port separated by a colon, or a port on localhost
+     */
+    public void setAddress(String address) {
+        addresses.clear();
+        addresses.add(toAddress(address));
+    }
+
+    /**
+     * Sets the addresses which have to accept connections for the application to be ready.
+     *
+     * @param addresses hosts and ports separated by a colon, or ports on localhost
+     */
+    public void setAddresses(Iterable<?> addresses) {
+        this.addresses.clear();
+        for (Object address : addresses) {
+            this.addresses.add(toAddress(address.toString()));
+        }
+    }
+
+    /**
+     * Adds addresses which have to accept connections for the application to be ready.
+     *
+     * @param addresses hosts and ports separated by a colon, or ports on localhost
+     * @return this
+     */
+    public StartTcpApplicationAsync addresses(Object... addresses) {
+        for (Object address : addresses) {
+            this.addresses.add(toAddress(address.toString()));
+        }
+        return this;
+    }
+
+    /**
+     * Returns the timeout for establishing connections in a single check.
+     *
+     * @return duration in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets the timeout for establishing connections in a single check.
+     *
+     * @param connectTimeout duration in milliseconds
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Returns true when task should fail when application is already running.
+     *
+     * @return true if task will fail for already running application
+     */
+    public boolean isFailIfAlreadyRunning() {
+        return failIfAlreadyRunning;
+    }
+
+    /**
+     * Controls whether task should fail when application is already running.
+     *
+     * @param failIfAlreadyRunning set to true if task should fail for already running application
+     */
+    public void setFailIfAlreadyRunning(boolean failIfAlreadyRunning) {
+        this.failIfAlreadyRunning = failIfAlreadyRunning;
+    }
+
+    @Override
+    protected boolean startApplication() {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("Missing address");
+        }
+        checker.setConnectTimeout(connectTimeout);
+
+        if (checker.isAccessible(addresses)) {
+            if (failIfAlreadyRunning) {
+                throw new TcpApplicationIsAlreadyAvailableException(addresses.toString());
+            } else {
+                LOGGER.info("Application addresses " + addresses + " are already accessible, the application won't be started");
+                return false;
+            }
+        }
+
+        LOGGER.info("Application addresses " + addresses + " are not already accessible, starting the application...");
+        return super.startApplication();
+    }
+
+    @Override
+    protected boolean isApplicationReady() {
+        return checker.isAccessible(addresses);
+    }
+
+    @Override
+    protected boolean isReusedApplicationReady() {
+        checker.setConnectTimeout(connectTimeout);
+        return checker.isAccessible(addresses);
+    }
+
+    protected void setChecker(TcpApplicationChecker checker) {
+        this.checker = checker;
+    }
+
+    private static InetSocketAddress toAddress(String address) {
+        int separator = address.lastIndexOf(':');
+        String host = separator < 0 ? "localhost" : address.substring(0, separator);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        try {
+            int port = Integer.parseInt(address.substring(separator + 1));
+            return InetSocketAddress.createUnresolved(host, port);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid address: " + address, e);
+        }
+    }
+}
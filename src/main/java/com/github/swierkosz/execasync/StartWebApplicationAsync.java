@@ -16,11 +16,21 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.web.BodyPredicate;
+import com.github.swierkosz.execasync.web.BodyPredicates;
+import com.github.swierkosz.execasync.web.MultiplexedWebApplicationChecker;
 import com.github.swierkosz.execasync.web.WebApplicationChecker;
 import com.github.swierkosz.execasync.web.WebApplicationIsAlreadyAvailableException;
+import com.github.swierkosz.execasync.web.WebEndpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 public class StartWebApplicationAsync extends AbstractPollingExecAsyncTask<StartWebApplicationAsync> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StartWebApplicationAsync.class);
@@ -28,7 +38,14 @@ public class StartWebApplicationAsync extends AbstractPollingExecAsyncTask<Start
     private String applicationUrl;
     private int expectedResponseCode = 200;
     private boolean failIfAlreadyRunning = true;
+    private int connectTimeout = WebApplicationChecker.DEFAULT_TIMEOUT;
+    private int readTimeout = WebApplicationChecker.DEFAULT_TIMEOUT;
+    private String requestMethod = "GET";
+    private BodyPredicate bodyPredicate;
+    private final List<WebEndpoint> endpoints = new ArrayList<WebEndpoint>();
+    private final Set<WebEndpoint> readyEndpoints = Collections.synchronizedSet(new LinkedHashSet<WebEndpoint>());
     private WebApplicationChecker checker = new WebApplicationChecker();
+    private MultiplexedWebApplicationChecker multiplexedChecker = new MultiplexedWebApplicationChecker();
 
     public StartWebApplicationAsync() {
         super(StartWebApplicationAsync.class);
@@ -70,6 +87,100 @@ public class StartWebApplicationAsync extends AbstractPollingExecAsyncTask<Start
         this.expectedResponseCode = expectedResponseCode;
     }
 
+    /**
+     * Returns the predicate which the response body has to match for the application to be ready.
+     *
+     * @return predicate or null if only the response code is checked
+     */
+    public BodyPredicate getBodyPredicate() {
+        return bodyPredicate;
+    }
+
+    /**
+     * Sets the predicate which the response body has to match for the application to be ready, in addition to the
+     * expected response code, see {@link BodyPredicates}.
+     *
+     * @param bodyPredicate predicate or null if only the response code is checked
+     * @throws IllegalArgumentException if endpoints have been added, their bodies are not checked
+     */
+    public void setBodyPredicate(BodyPredicate bodyPredicate) {
+        if (bodyPredicate != null && !endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Expected body cannot be combined with endpoints");
+        }
+        this.bodyPredicate = bodyPredicate;
+    }
+
+    /**
+     * Sets the regular expression which has to be found in the response body for the application to be ready.
+     *
+     * @param expectedBody regular expression
+     */
+    public void setExpectedBody(String expectedBody) {
+        setBodyPredicate(BodyPredicates.regex(expectedBody));
+    }
+
+    /**
+     * Sets the top level field of a JSON response body which has to have the expected value for the application to
+     * be ready.
+     *
+     * @param name          name of the field
+     * @param expectedValue expected value of the field
+     * @return this
+     */
+    public StartWebApplicationAsync expectedJsonField(String name, String expectedValue) {
+        setBodyPredicate(BodyPredicates.jsonField(name, expectedValue));
+        return this;
+    }
+
+    /**
+     * Returns the additional endpoints which have to respond with expected status codes for the application to be
+     * ready.
+     *
+     * @return endpoints
+     */
+    public List<WebEndpoint> getEndpoints() {
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    /**
+     * Adds an endpoint which has to respond with 200 for the application to be ready.
+     *
+     * @param url absolute http url
+     * @return this
+     */
+    public StartWebApplicationAsync endpoint(String url) {
+        return endpoint(url, 200);
+    }
+
+    /**
+     * Adds an endpoint which has to respond with the expected status code for the application to be ready. All the
+     * endpoints, including the application url, are then checked at the same time.
+     *
+     * @param url                  absolute http url
+     * @param expectedResponseCode expected HTTP status code
+     * @return this
+     * @throws IllegalArgumentException if the url is not a valid plain HTTP url or an expected body has been set
+     */
+    public StartWebApplicationAsync endpoint(String url, int expectedResponseCode) {
+        if (bodyPredicate != null) {
+            throw new IllegalArgumentException("Expected body cannot be combined with endpoints");
+        }
+        MultiplexedWebApplicationChecker.validateUrl(url);
+        endpoints.add(new WebEndpoint(url, expectedResponseCode));
+        return this;
+    }
+
+    /**
+     * Returns the endpoints which have become ready so far.
+     *
+     * @return endpoints
+     */
+    public Set<WebEndpoint> getReadyEndpoints() {
+        synchronized (readyEndpoints) {
+            return new LinkedHashSet<WebEndpoint>(readyEndpoints);
+        }
+    }
+
     /**
      * Returns true when task should fail when application is already running.
      *
@@ -88,27 +199,141 @@ public class StartWebApplicationAsync extends AbstractPollingExecAsyncTask<Start
         this.failIfAlreadyRunning = failIfAlreadyRunning;
     }
 
+    /**
+     * Returns the timeout for establishing a connection in a single check.
+     *
+     * @return duration in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets the timeout for establishing a connection in a single check.
+     *
+     * @param connectTimeout duration in milliseconds
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Returns the timeout for reading a response in a single check.
+     *
+     * @return duration in milliseconds
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the timeout for reading a response in a single check.
+     *
+     * @param readTimeout duration in milliseconds
+     */
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Returns the HTTP method used for checking whether application has started.
+     *
+     * @return HTTP method
+     */
+    public String getRequestMethod() {
+        return requestMethod;
+    }
+
+    /**
+     * Sets the HTTP method used for checking whether application has started, e.g. HEAD to avoid transferring
+     * response bodies.
+     *
+     * @param requestMethod HTTP method
+     */
+    public void setRequestMethod(String requestMethod) {
+        this.requestMethod = requestMethod;
+    }
+
     @Override
-    protected void exec() {
-        if (checker.isUrlAccessible(applicationUrl, expectedResponseCode)) {
+    protected boolean startApplication() {
+        configureCheckers();
+
+        String description = endpoints.isEmpty() ? "url " + applicationUrl : "endpoints " + getAllEndpoints();
+        if (isAccessible()) {
             if (failIfAlreadyRunning) {
-                throw new WebApplicationIsAlreadyAvailableException(applicationUrl);
+                throw new WebApplicationIsAlreadyAvailableException(endpoints.isEmpty() ? applicationUrl : getAllEndpoints().toString());
             } else {
-                LOGGER.info("Application url " + applicationUrl + " is already accessible, the application won't be started");
-                return;
+                LOGGER.info("Application " + description + " is already accessible, the application won't be started");
+                return false;
             }
         }
 
-        LOGGER.info("Application url " + applicationUrl + " is not already accessible, starting the application...");
-        super.exec();
+        readyEndpoints.clear();
+        LOGGER.info("Application " + description + " is not already accessible, starting the application...");
+        return super.startApplication();
     }
 
     @Override
     protected boolean isApplicationReady() {
-        return checker.isUrlAccessible(applicationUrl, expectedResponseCode);
+        return isAccessible();
+    }
+
+    @Override
+    protected boolean isReusedApplicationReady() {
+        configureCheckers();
+        return isAccessible();
+    }
+
+    private void configureCheckers() {
+        for (WebEndpoint endpoint : endpoints.isEmpty() ? Collections.<WebEndpoint>emptyList() : getAllEndpoints()) {
+            MultiplexedWebApplicationChecker.validateUrl(endpoint.getUrl());
+        }
+        checker.setBodyPredicate(bodyPredicate);
+        checker.setConnectTimeout(connectTimeout);
+        checker.setReadTimeout(readTimeout);
+        checker.setRequestMethod(requestMethod);
+        multiplexedChecker.setConnectTimeout(connectTimeout);
+        multiplexedChecker.setReadTimeout(readTimeout);
+        multiplexedChecker.setRequestMethod(requestMethod);
+        readyEndpoints.clear();
+    }
+
+    /**
+     * Checks the application url alone, or all the endpoints which have not become ready yet at the same time.
+     */
+    private boolean isAccessible() {
+        if (endpoints.isEmpty()) {
+            return checker.isUrlAccessible(applicationUrl, expectedResponseCode);
+        }
+        List<WebEndpoint> allEndpoints = getAllEndpoints();
+        List<WebEndpoint> pendingEndpoints = new ArrayList<WebEndpoint>(allEndpoints);
+        pendingEndpoints.removeAll(getReadyEndpoints());
+        for (WebEndpoint endpoint : multiplexedChecker.getAccessibleEndpoints(pendingEndpoints)) {
+            if (readyEndpoints.add(endpoint)) {
+                LOGGER.info("Endpoint " + endpoint + " is ready");
+            }
+        }
+        return readyEndpoints.size() == allEndpoints.size();
+    }
+
+    private List<WebEndpoint> getAllEndpoints() {
+        List<WebEndpoint> allEndpoints = new ArrayList<WebEndpoint>();
+        if (applicationUrl != null) {
+            allEndpoints.add(new WebEndpoint(applicationUrl, expectedResponseCode));
+        }
+        for (WebEndpoint endpoint : endpoints) {
+            if (!allEndpoints.contains(endpoint)) {
+                allEndpoints.add(endpoint);
+            }
+        }
+        return allEndpoints;
     }
 
     protected void setChecker(WebApplicationChecker checker) {
         this.checker = checker;
     }
+
+    protected void setMultiplexedChecker(MultiplexedWebApplicationChecker multiplexedChecker) {
+        this.multiplexedChecker = multiplexedChecker;
+    }
 }
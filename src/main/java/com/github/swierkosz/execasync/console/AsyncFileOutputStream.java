@@ -0,0 +1,232 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Writes to a file on a dedicated thread, so that writers only copy bytes into memory. Two reusable buffers are
+ * swapped: writers fill one of them while the other one is written to the file. A buffer is written once it is half
+ * full or at least every flush interval. Writers wait only if the file cannot keep up and both buffers are full. If
+ * the file cannot be written, further output is discarded, so that the process is never blocked, and the failure is
+ * reported by {@link #close()}.
+ */
+public class AsyncFileOutputStream extends OutputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL = 200;
+
+    private final OutputStream target;
+    private final long flushInterval;
+    private final int flushThreshold;
+    private final byte[] singleByte = new byte[1];
+    private final Object lock = new Object();
+    private final Thread writer;
+    private byte[] active;
+    private byte[] spare;
+    private int count = 0;
+    private int batchSize = 0;
+    private boolean closed = false;
+    private IOException failure;
+
+    public AsyncFileOutputStream(File file) throws IOException {
+        this(file, DEFAULT_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a stream truncating the given file, its parent directories are created if necessary.
+     *
+     * @param file          file to be written
+     * @param bufferSize    size of each of the two buffers in bytes
+     * @param flushInterval maximum time in milliseconds for which written bytes are kept in memory
+     * @throws IOException if the file cannot be created
+     */
+    public AsyncFileOutputStream(File file, int bufferSize, long flushInterval) throws IOException {
+        this(open(file), bufferSize, flushInterval, "ExecAsync log writer for " + file.getName());
+    }
+
+    AsyncFileOutputStream(OutputStream target, int bufferSize, long flushInterval, String threadName) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size has to be positive");
+        }
+        this.target = target;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = Math.max(1, bufferSize / 2);
+        this.active = new byte[bufferSize];
+        this.spare = new byte[bufferSize];
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeBatches();
+            }
+        }, threadName);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        synchronized (lock) {
+            while (len > 0) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                if (failure != null) {
+                    return;
+                }
+                int copied = Math.min(len, active.length - count);
+                if (copied == 0) {
+                    awaitSpace();
+                    continue;
+                }
+                boolean wasEmpty = count == 0;
+                System.arraycopy(b, off, active, count, copied);
+                count += copied;
+                off += copied;
+                len -= copied;
+                if (wasEmpty || count >= flushThreshold) {
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Does not wait for the bytes to be written, they are written by the writer thread within the flush interval.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes all buffered bytes and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the log file");
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void writeBatches() {
+        try {
+            byte[] batch;
+            while ((batch = takeBatch()) != null) {
+                try {
+                    target.write(batch, 0, batchSize);
+                    target.flush();
+                } finally {
+                    synchronized (lock) {
+                        spare = batch;
+                        lock.notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException ignored) {
+            // the stream has been abandoned
+        } finally {
+            try {
+                target.close();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until there is something to be written and the buffer is half full, the flush interval has elapsed or
+     * the stream has been closed, then swaps the buffers.
+     *
+     * @return buffer to be written or null once the stream has been closed and everything has been written
+     */
+    private byte[] takeBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (count == 0 && !closed) {
+                lock.wait();
+            }
+            long deadline = System.nanoTime() + flushInterval * 1000000L;
+            long remaining;
+            while (count < flushThreshold && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                lock.wait(remaining / 1000000L + 1);
+            }
+            if (count == 0) {
+                return null;
+            }
+            byte[] batch = active;
+            batchSize = count;
+            active = spare;
+            spare = null;
+            count = 0;
+            lock.notifyAll();
+            return batch;
+        }
+    }
+
+    private void awaitSpace() throws IOException {
+        lock.notifyAll();
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the log file");
+        }
+    }
+
+    private static OutputStream open(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        return new FileOutputStream(file);
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes to a sink on a dedicated consumer thread, so that writers only copy bytes into a bounded queue of pooled
+ * chunks. What happens when the queue is full is decided by the {@link OverflowPolicy}. If the sink cannot be
+ * written, further output is discarded, so that writers are never blocked, and the failure is reported by
+ * {@link #finish()} and {@link #close()}.
+ */
+public class AsyncOutputStream extends OutputStream {
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    public static final int DEFAULT_CAPACITY = 256;
+    static final int SAMPLE_RATE = 10;
+    private static final Chunk END = new Chunk(0);
+
+    private final OutputStream sink;
+    private final OverflowPolicy overflowPolicy;
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> queue;
+    private final BlockingQueue<Chunk> pool;
+    private final byte[] singleByte = new byte[1];
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private final Thread consumer;
+    private long overflows = 0;
+    private boolean finished = false;
+    private volatile IOException failure;
+
+    public AsyncOutputStream(OutputStream sink, OverflowPolicy overflowPolicy, String threadName) {
+        this(sink, overflowPolicy, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY, threadName);
+    }
+
+    /**
+     * Creates a stream and starts its consumer thread.
+     *
+     * @param sink           stream to which the output is written by the consumer thread
+     * @param overflowPolicy decides what happens to the output written while the queue is full
+     * @param chunkSize      size of each pooled chunk in bytes, longer writes are split into several chunks
+     * @param capacity       maximum number of chunks waiting for the sink
+     * @param threadName     name of the consumer thread
+     */
+    public AsyncOutputStream(OutputStream sink, OverflowPolicy overflowPolicy, int chunkSize, int capacity,
+                             String threadName) {
+        if (chunkSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Chunk size and capacity have to be positive");
+        }
+        this.sink = sink;
+        this.overflowPolicy = overflowPolicy;
+        this.chunkSize = chunkSize;
+        this.queue = new ArrayBlockingQueue<Chunk>(capacity);
+        this.pool = new ArrayBlockingQueue<Chunk>(capacity);
+        this.consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeChunks();
+            }
+        }, threadName);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (finished) {
+            throw new IOException("Stream closed");
+        }
+        while (len > 0 && failure == null) {
+            Chunk chunk = pool.poll();
+            if (chunk == null) {
+                chunk = new Chunk(chunkSize);
+            }
+            chunk.length = Math.min(len, chunkSize);
+            System.arraycopy(b, off, chunk.bytes, 0, chunk.length);
+            off += chunk.length;
+            len -= chunk.length;
+            enqueue(chunk);
+        }
+    }
+
+    /**
+     * Does not wait for the bytes to be written, the sink is flushed whenever the consumer has emptied the queue.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes all queued bytes and stops the consumer thread, the sink is flushed but not closed.
+     *
+     * @throws IOException if the sink could not be written
+     */
+    public void finish() throws IOException {
+        synchronized (this) {
+            if (!finished) {
+                finished = true;
+                put(END);
+            }
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the output");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes all queued bytes and closes the sink.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            sink.close();
+        }
+    }
+
+    /**
+     * Returns the number of bytes discarded because the queue was full.
+     *
+     * @return number of bytes which have not been written to the sink
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    private void enqueue(Chunk chunk) throws InterruptedIOException {
+        if (queue.offer(chunk)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            put(chunk);
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SAMPLE && ++overflows % SAMPLE_RATE != 0) {
+            drop(chunk);
+            return;
+        }
+        while (!queue.offer(chunk)) {
+            Chunk oldest = queue.poll();
+            if (oldest != null) {
+                drop(oldest);
+            }
+        }
+    }
+
+    private void put(Chunk chunk) throws InterruptedIOException {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the output to be written");
+        }
+    }
+
+    private void drop(Chunk chunk) {
+        droppedBytes.addAndGet(chunk.length);
+        pool.offer(chunk);
+    }
+
+    /**
+     * Writes queued chunks until the end of the output. After a failure the chunks are still taken, so that writers
+     * waiting for room are released, but discarded.
+     */
+    private void writeChunks() {
+        try {
+            Chunk chunk;
+            while ((chunk = queue.take()) != END) {
+                if (failure == null) {
+                    try {
+                        sink.write(chunk.bytes, 0, chunk.length);
+                        if (queue.isEmpty()) {
+                            sink.flush();
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                pool.offer(chunk);
+            }
+            if (failure == null) {
+                sink.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException ignored) {
+            // the stream has been abandoned
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] bytes;
+        private int length;
+
+        Chunk(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes to any number of sinks, which can be attached and detached while the output is being written. The sinks
+ * are kept in a copy-on-write array, so writes take no lock; a write in progress may still reach a sink which is
+ * being detached.
+ */
+public class FanOutOutputStream extends OutputStream {
+
+    private final AtomicReference<OutputStream[]> sinks;
+
+    public FanOutOutputStream(OutputStream... sinks) {
+        this.sinks = new AtomicReference<OutputStream[]>(sinks.clone());
+    }
+
+    public void attach(OutputStream sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink cannot be null");
+        }
+        OutputStream[] current;
+        OutputStream[] updated;
+        do {
+            current = sinks.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = sink;
+        } while (!sinks.compareAndSet(current, updated));
+    }
+
+    /**
+     * Detaches the sink, it is not closed.
+     *
+     * @param sink sink to be detached
+     * @return true if the sink has been attached
+     */
+    public boolean detach(OutputStream sink) {
+        OutputStream[] current;
+        OutputStream[] updated;
+        do {
+            current = sinks.get();
+            int index = indexOf(current, sink);
+            if (index < 0) {
+                return false;
+            }
+            updated = new OutputStream[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, updated.length - index);
+        } while (!sinks.compareAndSet(current, updated));
+        return true;
+    }
+
+    public List<OutputStream> getSinks() {
+        return Collections.unmodifiableList(Arrays.asList(sinks.get()));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        for (OutputStream sink : sinks.get()) {
+            sink.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        for (OutputStream sink : sinks.get()) {
+            sink.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        for (OutputStream sink : sinks.get()) {
+            sink.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (OutputStream sink : sinks.get()) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Closes every sink, even if closing one of them fails.
+     *
+     * @throws IOException the first exception thrown by a sink
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (OutputStream sink : sinks.get()) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static int indexOf(OutputStream[] sinks, OutputStream sink) {
+        for (int i = 0; i < sinks.length; i++) {
+            if (sinks[i] == sink) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Searches raw console output for a literal using the Boyer-Moore-Horspool algorithm. The search can be fed in chunks,
+ * a match spanning chunk boundaries is found as well.
+ */
+public class LiteralMatcher {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] literal;
+    private final int[] shifts = new int[256];
+    private final byte[] window;
+    private int windowLength = 0;
+
+    public LiteralMatcher(byte[] literal) {
+        this.literal = literal.clone();
+        this.window = new byte[Math.max(0, 2 * (literal.length - 1))];
+        Arrays.fill(shifts, literal.length);
+        for (int i = 0; i < literal.length - 1; i++) {
+            shifts[literal[i] & 0xFF] = literal.length - 1 - i;
+        }
+    }
+
+    /**
+     * Creates a matcher for a pattern which can be searched for directly in the output bytes: a pattern compiled with
+     * {@link Pattern#LITERAL} or one without any regular expression metacharacters and flags. A line terminator in the
+     * literal or a charset in which the encoded literal could match in the middle of a character rule out the search.
+     *
+     * @param pattern pattern to be matched
+     * @param charset charset of the output
+     * @return matcher or null if the pattern has to be matched as a regular expression
+     */
+    public static LiteralMatcher forPattern(Pattern pattern, Charset charset) {
+        String literal = pattern.pattern();
+        boolean isLiteral = pattern.flags() == Pattern.LITERAL || (pattern.flags() == 0 && !containsMetacharacter(literal));
+        if (!isLiteral || literal.indexOf('\n') >= 0 || literal.indexOf('\r') >= 0) {
+            return null;
+        }
+        CharsetEncoder encoder = charset.newEncoder();
+        if (!(charset.equals(UTF_8) || encoder.maxBytesPerChar() == 1) || !encoder.canEncode(literal)) {
+            return null;
+        }
+        return new LiteralMatcher(literal.getBytes(charset));
+    }
+
+    /**
+     * Searches given bytes, continuing the bytes passed to the previous invocations since the last {@link #reset()}.
+     *
+     * @param b   the data
+     * @param off the start offset in the data
+     * @param len the number of bytes to search
+     * @return true if the literal has been found
+     */
+    public boolean find(byte[] b, int off, int len) {
+        int m = literal.length;
+        if (m == 0) {
+            return true;
+        }
+        int take = Math.min(len, m - 1);
+        System.arraycopy(b, off, window, windowLength, take);
+        if (windowLength > 0 && indexOf(window, 0, windowLength + take) >= 0) {
+            return true;
+        }
+        if (indexOf(b, off, off + len) >= 0) {
+            return true;
+        }
+        if (len >= m - 1) {
+            System.arraycopy(b, off + len - (m - 1), window, 0, m - 1);
+            windowLength = m - 1;
+        } else {
+            int total = windowLength + take;
+            int keep = Math.min(total, m - 1);
+            System.arraycopy(window, total - keep, window, 0, keep);
+            windowLength = keep;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the bytes passed so far, so that a match cannot span them and the following bytes.
+     */
+    public void reset() {
+        windowLength = 0;
+    }
+
+    private int indexOf(byte[] b, int from, int to) {
+        int last = literal.length - 1;
+        byte lastByte = literal[last];
+        int i = from;
+        while (i <= to - literal.length) {
+            byte current = b[i + last];
+            if (current == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && b[i + j] == literal[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shifts[current & 0xFF];
+        }
+        return -1;
+    }
+
+    private static boolean containsMetacharacter(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (METACHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
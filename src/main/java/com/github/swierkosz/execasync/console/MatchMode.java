@@ -0,0 +1,35 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Defines when a set of patterns is considered matched.
+ */
+public enum MatchMode {
+    /**
+     * Any of the patterns has to match.
+     */
+    ANY_OF,
+    /**
+     * Every pattern has to match, in any order.
+     */
+    ALL_OF,
+    /**
+     * Every pattern has to match, in the order in which patterns were given.
+     */
+    IN_ORDER
+}
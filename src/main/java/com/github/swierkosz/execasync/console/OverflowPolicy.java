@@ -0,0 +1,36 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Defines what happens to the output written to an {@link AsyncOutputStream} whose queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The writer waits until the sink has caught up, no output is lost.
+     */
+    BLOCK,
+    /**
+     * The oldest queued output is discarded to make room, so that the sink receives the most recent output.
+     */
+    DROP_OLDEST,
+    /**
+     * Only every tenth chunk of the output written while the queue is full is kept, in place of the oldest queued
+     * output, the rest is discarded.
+     */
+    SAMPLE
+}
@@ -16,35 +16,268 @@ package com.github.swierkosz.execasync.console;
  * limitations under the License.
  */
 
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class PatternMatchingOutputStream extends OutputStream {
-    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8096);
-    private final Pattern pattern;
-    private boolean matched = false;
+    public static final int DEFAULT_MAX_LINE_LENGTH = 64 * 1024;
+    private static final byte LINE_FEED = 10;
+    private static final byte CARRIAGE_RETURN = 13;
+
+    private final PatternSet patterns;
+    private final Matcher[] matchers;
+    private final Matcher[] failureMatchers;
+    private final LiteralMatcher[] literalMatchers;
+    private final boolean[] literalsFound;
+    private final LiteralMatcher[] failureLiteralMatchers;
+    private final boolean[] failureLiteralsFound;
+    private final boolean failureExpressions;
+    private final boolean buffering;
+    private final int maxLineLength;
+    private final CharsetDecoder decoder;
+    private final byte[] singleByte = new byte[1];
+    private byte[] buffer;
+    private ByteBuffer bytes;
+    private CharBuffer chars = CharBuffer.allocate(0);
+    private int count = 0;
+    private boolean afterCarriageReturn = false;
 
     public PatternMatchingOutputStream(Pattern pattern) {
-        this.pattern = pattern;
+        this(pattern, Charset.defaultCharset());
+    }
+
+    public PatternMatchingOutputStream(Pattern pattern, Charset charset) {
+        this(new PatternSet(Collections.singletonList(pattern), MatchMode.ANY_OF), charset);
+    }
+
+    public PatternMatchingOutputStream(PatternSet patterns, Charset charset) {
+        this(patterns, charset, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Creates a stream matching lines terminated by a line feed, a carriage return or both.
+     *
+     * @param patterns      patterns to be matched
+     * @param charset       charset of the output
+     * @param maxLineLength number of bytes of each line which are kept for matching regular expressions and failure
+     *                      patterns, the rest of a longer line is discarded
+     */
+    public PatternMatchingOutputStream(PatternSet patterns, Charset charset, int maxLineLength) {
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("Maximum line length has to be positive");
+        }
+        this.patterns = patterns;
+        this.maxLineLength = maxLineLength;
+        this.buffer = new byte[Math.min(8096, maxLineLength)];
+        this.bytes = ByteBuffer.wrap(buffer);
+        this.matchers = new Matcher[patterns.size()];
+        this.literalMatchers = new LiteralMatcher[patterns.size()];
+        this.literalsFound = new boolean[patterns.size()];
+        boolean regularExpressions = false;
+        for (int i = 0; i < matchers.length; i++) {
+            literalMatchers[i] = LiteralMatcher.forPattern(patterns.getPattern(i), charset);
+            if (literalMatchers[i] == null) {
+                matchers[i] = patterns.getPattern(i).matcher("");
+                regularExpressions = true;
+            }
+        }
+        this.failureMatchers = new Matcher[patterns.failurePatternsSize()];
+        this.failureLiteralMatchers = new LiteralMatcher[patterns.failurePatternsSize()];
+        this.failureLiteralsFound = new boolean[patterns.failurePatternsSize()];
+        boolean failureExpressions = false;
+        for (int i = 0; i < failureMatchers.length; i++) {
+            failureLiteralMatchers[i] = LiteralMatcher.forPattern(patterns.getFailurePattern(i), charset);
+            if (failureLiteralMatchers[i] == null) {
+                failureMatchers[i] = patterns.getFailurePattern(i).matcher("");
+                failureExpressions = true;
+            }
+        }
+        this.failureExpressions = failureExpressions;
+        this.buffering = regularExpressions || failureMatchers.length > 0;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
     }
 
     @Override
     public void write(int b) {
-        if (matched) {
-            return;
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    /**
+     * Scans the whole chunk for line terminators and processes every line segment at once. Literal patterns are
+     * searched for directly in the segment, only regular expressions need the line to be decoded. The line is buffered
+     * for failure patterns as well, so that a line with a literal failure pattern can be reported.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
         }
-        buffer.write(b);
-        if (b == 10) {
-            String line = buffer.toString();
-            buffer.reset();
-            if (pattern.matcher(line).find()) {
-                matched = true;
+        int end = off + len;
+        int start = off;
+        while (start < end && !patterns.isFinished()) {
+            if (afterCarriageReturn) {
+                afterCarriageReturn = false;
+                if (b[start] == LINE_FEED) {
+                    start++;
+                    continue;
+                }
             }
+            int lineEnd = indexOfLineTerminator(b, start, end);
+            int segmentEnd = lineEnd < 0 ? end : lineEnd + 1;
+            findLiterals(b, start, segmentEnd - start);
+            if (buffering) {
+                append(b, start, segmentEnd - start);
+            }
+            if (lineEnd < 0) {
+                return;
+            }
+            afterCarriageReturn = b[lineEnd] == CARRIAGE_RETURN;
+            matchLine();
+            start = segmentEnd;
         }
     }
 
     public boolean isMatched() {
-        return matched;
+        return patterns.isMatched();
+    }
+
+    /**
+     * Returns the first line that has matched one of the failure patterns.
+     *
+     * @return the line or null if none of the failure patterns has matched
+     */
+    public String getFailedLine() {
+        return patterns.getFailedLine();
+    }
+
+    int getBufferCapacity() {
+        return buffer.length;
+    }
+
+    private static int indexOfLineTerminator(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == LINE_FEED || b[i] == CARRIAGE_RETURN) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void findLiterals(byte[] b, int off, int len) {
+        for (int i = 0; i < literalMatchers.length; i++) {
+            if (literalMatchers[i] != null && !literalsFound[i] && !patterns.isMatched(i)) {
+                literalsFound[i] = literalMatchers[i].find(b, off, len);
+            }
+        }
+        for (int i = 0; i < failureLiteralMatchers.length; i++) {
+            if (failureLiteralMatchers[i] != null && !failureLiteralsFound[i]) {
+                failureLiteralsFound[i] = failureLiteralMatchers[i].find(b, off, len);
+            }
+        }
+    }
+
+    private void append(byte[] b, int off, int len) {
+        int kept = Math.min(len, maxLineLength - count);
+        if (kept > 0) {
+            ensureCapacity(count + kept);
+            System.arraycopy(b, off, buffer, count, kept);
+            count += kept;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length << 1, capacity), maxLineLength));
+            bytes = ByteBuffer.wrap(buffer);
+        }
+    }
+
+    /**
+     * Completes matching of the current line. If a literal failure pattern has been found in the line, there are
+     * failure patterns which are regular expressions or any regular expression is still pending, the buffered line is
+     * decoded once into a reused {@link CharBuffer} and matched with reused {@link Matcher}s, so that no objects are
+     * allocated per line once the buffers have grown to the longest line. Failure patterns are checked first, then
+     * literals found in the line and regular expressions.
+     */
+    private void matchLine() {
+        boolean failed = resetFailureLiterals();
+        boolean decoded = failed || failureExpressions || (buffering && isAnyRegularExpressionPending());
+        if (decoded) {
+            decodeLine();
+        }
+        count = 0;
+
+        if (failed || (failureExpressions && matchesFailurePattern())) {
+            patterns.markFailed(chars.toString().replaceFirst("[\\r\\n]+$", ""));
+            return;
+        }
+
+        for (int i = 0; i < matchers.length; i++) {
+            if (literalMatchers[i] != null) {
+                if (literalsFound[i] && patterns.isPending(i)) {
+                    patterns.markMatched(i);
+                }
+                literalsFound[i] = false;
+                literalMatchers[i].reset();
+            } else if (patterns.isPending(i) && matchers[i].reset(chars).find()) {
+                patterns.markMatched(i);
+            }
+        }
+    }
+
+    private boolean matchesFailurePattern() {
+        for (Matcher failureMatcher : failureMatchers) {
+            if (failureMatcher != null && failureMatcher.reset(chars).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean resetFailureLiterals() {
+        boolean found = false;
+        for (int i = 0; i < failureLiteralMatchers.length; i++) {
+            if (failureLiteralMatchers[i] != null) {
+                found |= failureLiteralsFound[i];
+                failureLiteralsFound[i] = false;
+                failureLiteralMatchers[i].reset();
+            }
+        }
+        return found;
+    }
+
+    private boolean isAnyRegularExpressionPending() {
+        for (int i = 0; i < matchers.length; i++) {
+            if (matchers[i] != null && patterns.isPending(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void decodeLine() {
+        bytes.clear();
+        bytes.limit(count);
+
+        int maxChars = (int) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte());
+        if (chars.capacity() < maxChars) {
+            chars = CharBuffer.allocate(Math.max(chars.capacity() << 1, maxChars));
+        }
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        chars.flip();
     }
 }
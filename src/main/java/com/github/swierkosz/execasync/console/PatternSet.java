@@ -0,0 +1,188 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Patterns that have to match console output, together with the progress of matching them. Failure patterns are
+ * matched against the same lines, the first line matching any of them is recorded.
+ * A single instance may be shared by several {@link PatternMatchingOutputStream}s, e.g. standard and error output.
+ */
+public class PatternSet {
+    private final List<Pattern> patterns;
+    private final MatchMode mode;
+    private final List<Pattern> failurePatterns;
+    private final AtomicIntegerArray matchedPatterns;
+    private final AtomicInteger progress = new AtomicInteger();
+    private final AtomicReference<String> failedLine = new AtomicReference<String>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<Runnable>();
+    private volatile boolean matched = false;
+
+    public PatternSet(List<Pattern> patterns, MatchMode mode) {
+        this(patterns, mode, Collections.<Pattern>emptyList());
+    }
+
+    public PatternSet(List<Pattern> patterns, MatchMode mode, List<Pattern> failurePatterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("At least one pattern is required");
+        }
+        this.patterns = new ArrayList<Pattern>(patterns);
+        this.mode = mode;
+        this.failurePatterns = new ArrayList<Pattern>(failurePatterns);
+        this.matchedPatterns = new AtomicIntegerArray(patterns.size());
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public Pattern getPattern(int index) {
+        return patterns.get(index);
+    }
+
+    public MatchMode getMode() {
+        return mode;
+    }
+
+    public int failurePatternsSize() {
+        return failurePatterns.size();
+    }
+
+    public Pattern getFailurePattern(int index) {
+        return failurePatterns.get(index);
+    }
+
+    /**
+     * Adds a listener which is run by the matching thread as soon as matching is finished.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns true if matching the pattern at given index would make progress.
+     *
+     * @param index index of the pattern
+     * @return true if the pattern should be matched against the next line
+     */
+    public boolean isPending(int index) {
+        switch (mode) {
+            case ANY_OF:
+                return !matched;
+            case ALL_OF:
+                return matchedPatterns.get(index) == 0;
+            default:
+                return progress.get() == index;
+        }
+    }
+
+    /**
+     * Returns true if the pattern at given index has already been matched.
+     *
+     * @param index index of the pattern
+     * @return true if the pattern does not have to be matched anymore
+     */
+    public boolean isMatched(int index) {
+        switch (mode) {
+            case ANY_OF:
+                return matched;
+            case ALL_OF:
+                return matchedPatterns.get(index) != 0;
+            default:
+                return progress.get() > index;
+        }
+    }
+
+    /**
+     * Records that the pattern at given index has matched a line.
+     *
+     * @param index index of the pattern
+     */
+    public void markMatched(int index) {
+        switch (mode) {
+            case ANY_OF:
+                if (!matched) {
+                    finishMatching();
+                }
+                break;
+            case ALL_OF:
+                if (matchedPatterns.compareAndSet(index, 0, 1) && progress.incrementAndGet() == patterns.size()) {
+                    finishMatching();
+                }
+                break;
+            default:
+                if (progress.compareAndSet(index, index + 1) && index + 1 == patterns.size()) {
+                    finishMatching();
+                }
+        }
+    }
+
+    public boolean isMatched() {
+        return matched;
+    }
+
+    /**
+     * Records a line that has matched one of the failure patterns, unless a line has been recorded already.
+     *
+     * @param line the line without line terminator
+     */
+    public void markFailed(String line) {
+        if (failedLine.compareAndSet(null, line)) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Returns the first line that has matched one of the failure patterns.
+     *
+     * @return the line or null if none of the failure patterns has matched
+     */
+    public String getFailedLine() {
+        return failedLine.get();
+    }
+
+    /**
+     * Returns true when there is nothing more to match, either because the patterns have matched or a failure pattern
+     * has matched.
+     *
+     * @return true if matching is finished
+     */
+    public boolean isFinished() {
+        return matched || failedLine.get() != null;
+    }
+
+    private void finishMatching() {
+        matched = true;
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
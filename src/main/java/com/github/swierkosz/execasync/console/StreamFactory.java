@@ -16,15 +16,16 @@ package com.github.swierkosz.execasync.console;
  * limitations under the License.
  */
 
-import java.io.OutputStream;
-import java.util.regex.Pattern;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 
 public class StreamFactory {
-    public PatternMatchingOutputStream createPatternMatchingOutputStream(Pattern pattern) {
-        return new PatternMatchingOutputStream(pattern);
+    public PatternMatchingOutputStream createPatternMatchingOutputStream(PatternSet patterns, Charset charset, int maxLineLength) {
+        return new PatternMatchingOutputStream(patterns, charset, maxLineLength);
     }
 
-    public TeeOutputStream createTeeOutputStream(OutputStream left, OutputStream right) {
-        return new TeeOutputStream(left, right);
+    public AsyncFileOutputStream createAsyncFileOutputStream(File file) throws IOException {
+        return new AsyncFileOutputStream(file);
     }
 }
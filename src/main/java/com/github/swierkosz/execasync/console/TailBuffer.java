@@ -0,0 +1,104 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Keeps the last bytes written in a fixed-size ring buffer, older bytes are overwritten without any allocation.
+ */
+public class TailBuffer extends OutputStream {
+    private static final byte LINE_FEED = 10;
+
+    private final byte[] buffer;
+    private int position = 0;
+    private long written = 0;
+
+    public TailBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity has to be positive");
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        buffer[position] = (byte) b;
+        position = (position + 1) % buffer.length;
+        written++;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        written += len;
+        if (len >= buffer.length) {
+            System.arraycopy(b, off + len - buffer.length, buffer, 0, buffer.length);
+            position = 0;
+            return;
+        }
+        int first = Math.min(len, buffer.length - position);
+        System.arraycopy(b, off, buffer, position, first);
+        System.arraycopy(b, off + first, buffer, 0, len - first);
+        position = (position + len) % buffer.length;
+    }
+
+    /**
+     * Returns the kept bytes, oldest first.
+     *
+     * @return at most capacity of the last bytes written
+     */
+    public synchronized byte[] toByteArray() {
+        if (written <= buffer.length) {
+            byte[] bytes = new byte[(int) written];
+            System.arraycopy(buffer, 0, bytes, 0, bytes.length);
+            return bytes;
+        }
+        byte[] bytes = new byte[buffer.length];
+        System.arraycopy(buffer, position, bytes, 0, buffer.length - position);
+        System.arraycopy(buffer, 0, bytes, buffer.length - position, position);
+        return bytes;
+    }
+
+    /**
+     * Decodes the kept bytes. Once older bytes have been overwritten, the incomplete first line is skipped.
+     *
+     * @param charset charset of the output
+     * @return the last lines written
+     */
+    public String toString(Charset charset) {
+        byte[] bytes;
+        boolean truncated;
+        synchronized (this) {
+            bytes = toByteArray();
+            truncated = written > buffer.length;
+        }
+        int start = 0;
+        if (truncated) {
+            for (int i = 0; i < bytes.length - 1; i++) {
+                if (bytes[i] == LINE_FEED) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        return new String(bytes, start, bytes.length - start, charset);
+    }
+}
@@ -16,50 +16,24 @@ package com.github.swierkosz.execasync.console;
  * limitations under the License.
  */
 
-import java.io.IOException;
 import java.io.OutputStream;
 
-public class TeeOutputStream extends OutputStream {
+/**
+ * Writes to two sinks, the right one can be detached while the output is being written.
+ *
+ * @deprecated use {@link FanOutOutputStream}, which writes to any number of sinks
+ */
+@Deprecated
+public class TeeOutputStream extends FanOutOutputStream {
 
-    private OutputStream left;
-    private OutputStream right;
+    private final OutputStream right;
 
     public TeeOutputStream(OutputStream left, OutputStream right) {
-        this.left = left;
+        super(left, right);
         this.right = right;
     }
 
     public void detachRight() {
-        this.right = new NullOutputStream();
-    }
-
-    @Override
-    public void write(int b) throws IOException {
-        left.write(b);
-        right.write(b);
-    }
-
-    @Override
-    public void write(byte[] b) throws IOException {
-        left.write(b);
-        right.write(b);
-    }
-
-    @Override
-    public void write(byte[] b, int off, int len) throws IOException {
-        left.write(b, off, len);
-        right.write(b, off, len);
-    }
-
-    @Override
-    public void flush() throws IOException {
-        left.flush();
-        right.flush();
-    }
-
-    @Override
-    public void close() throws IOException {
-        left.close();
-        right.close();
+        detach(right);
     }
 }
@@ -0,0 +1,135 @@
+package com.github.swierkosz.execasync.metrics;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the times to ready of the last startups of an application in a text file, one number of milliseconds per
+ * line, oldest first.
+ */
+public class StartupHistory {
+    public static final int DEFAULT_SIZE = 100;
+
+    private final File file;
+    private final int size;
+
+    public StartupHistory(File file) {
+        this(file, DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a history stored in the given file.
+     *
+     * @param file file with the history, created when the first startup is recorded
+     * @param size maximum number of startups kept, older ones are forgotten
+     */
+    public StartupHistory(File file, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size has to be positive");
+        }
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * Reads the recorded times to ready, corrupted lines are skipped.
+     *
+     * @return times in milliseconds, oldest first, empty if the file does not exist or cannot be read
+     */
+    public List<Double> read() {
+        List<Double> times = new ArrayList<Double>();
+        if (!file.isFile()) {
+            return times;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        times.add(Double.parseDouble(line.trim()));
+                    } catch (NumberFormatException ignored) {
+                        // a line left by an interrupted write
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException ignored) {
+            times.clear();
+        }
+        return times.size() > size ? new ArrayList<Double>(times.subList(times.size() - size, times.size())) : times;
+    }
+
+    /**
+     * Records the time to ready of a startup, forgetting the oldest one if the history is full.
+     *
+     * @param timeToReady time in milliseconds
+     */
+    public void append(double timeToReady) {
+        List<Double> times = read();
+        times.add(timeToReady);
+        if (times.size() > size) {
+            times = times.subList(times.size() - size, times.size());
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + directory);
+        }
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                for (Double time : times) {
+                    writer.write(String.format(Locale.ROOT, "%.3f%n", time));
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot record the startup in " + file, e);
+        }
+    }
+
+    /**
+     * Returns the smallest of the values which is greater than or equal to the given percentage of them.
+     *
+     * @param values     values in any order, not empty
+     * @param percentile percentage between 0 (exclusive) and 100
+     * @return nearest-rank percentile
+     */
+    public static double percentile(List<Double> values, double percentile) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Values cannot be empty");
+        }
+        List<Double> sorted = new ArrayList<Double>(values);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.min(Math.max(rank, 1), sorted.size()) - 1);
+    }
+}
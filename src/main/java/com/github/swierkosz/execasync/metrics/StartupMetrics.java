@@ -0,0 +1,207 @@
+package com.github.swierkosz.execasync.metrics;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records where the startup time of an application goes. All durations are measured from the moment the task
+ * started launching the application and are returned in milliseconds, or null if the event has not happened yet.
+ */
+public class StartupMetrics {
+    private static final long NOT_YET = -1;
+
+    private final long startedAt;
+    private final long startedAtMillis;
+    private final AtomicLong firstOutputAt = new AtomicLong(NOT_YET);
+    private final AtomicInteger probeAttempts = new AtomicInteger();
+    private final AtomicLong probeTime = new AtomicLong();
+    private final AtomicLong readyAt = new AtomicLong(NOT_YET);
+    private volatile long spawnedAt = NOT_YET;
+    private volatile boolean deferred = false;
+
+    public StartupMetrics() {
+        this(System.nanoTime(), System.currentTimeMillis());
+    }
+
+    StartupMetrics(long startedAt, long startedAtMillis) {
+        this.startedAt = startedAt;
+        this.startedAtMillis = startedAtMillis;
+    }
+
+    public void spawned() {
+        spawnedAt = System.nanoTime();
+    }
+
+    public void firstOutput() {
+        firstOutputAt.compareAndSet(NOT_YET, System.nanoTime());
+    }
+
+    /**
+     * Records a single check whether the application is ready.
+     *
+     * @param duration time spent in the check in nanoseconds
+     */
+    public void probed(long duration) {
+        probeAttempts.incrementAndGet();
+        probeTime.addAndGet(duration);
+    }
+
+    /**
+     * Records the moment the application has been found ready, only the first one counts.
+     */
+    public void ready() {
+        readyAt.compareAndSet(NOT_YET, System.nanoTime());
+    }
+
+    /**
+     * Records that the application has been awaited later than it was started, so that other work has been done in
+     * between and the time to ready is only an upper bound.
+     */
+    public void deferred() {
+        deferred = true;
+    }
+
+    /**
+     * Returns a sink recording the moment the first byte of the output has been written.
+     *
+     * @return stream discarding the output
+     */
+    public OutputStream createFirstOutputSink() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                firstOutput();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (len > 0) {
+                    firstOutput();
+                }
+            }
+        };
+    }
+
+    public long getStartedAt() {
+        return startedAtMillis;
+    }
+
+    /**
+     * Returns the time it took to start the process.
+     *
+     * @return milliseconds or null if the process has not been started
+     */
+    public Double getSpawnLatency() {
+        return sinceStart(spawnedAt);
+    }
+
+    /**
+     * Returns the time until the application wrote the first byte to its standard output.
+     *
+     * @return milliseconds or null if there has been no output yet
+     */
+    public Double getTimeToFirstOutput() {
+        return sinceStart(firstOutputAt.get());
+    }
+
+    /**
+     * Returns the time until the application became ready.
+     *
+     * @return milliseconds or null if the application is not ready
+     */
+    public Double getTimeToReady() {
+        return sinceStart(readyAt.get());
+    }
+
+    /**
+     * Returns true if the application has been awaited later than it was started, in which case it may have been
+     * ready before the time to ready.
+     *
+     * @return true if the wait has been deferred
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    public int getProbeAttempts() {
+        return probeAttempts.get();
+    }
+
+    /**
+     * Returns the total time spent checking whether the application is ready.
+     *
+     * @return milliseconds
+     */
+    public double getProbeTime() {
+        return toMillis(probeTime.get());
+    }
+
+    /**
+     * Describes the metrics as a JSON object.
+     *
+     * @param taskName name of the task which has started the application
+     * @return JSON object in a single line
+     */
+    public String toJson(String taskName) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return "{\"task\":\"" + escape(taskName) + "\""
+                + ",\"startedAt\":\"" + format.format(new Date(startedAtMillis)) + "\""
+                + ",\"ready\":" + (readyAt.get() != NOT_YET)
+                + ",\"deferred\":" + deferred
+                + ",\"spawnLatency\":" + toJson(getSpawnLatency())
+                + ",\"timeToFirstOutput\":" + toJson(getTimeToFirstOutput())
+                + ",\"timeToReady\":" + toJson(getTimeToReady())
+                + ",\"probeAttempts\":" + getProbeAttempts()
+                + ",\"probeTime\":" + toJson(getProbeTime())
+                + "}";
+    }
+
+    private Double sinceStart(long time) {
+        return time == NOT_YET ? null : toMillis(time - startedAt);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000L / 1000.0;
+    }
+
+    private static String toJson(Double millis) {
+        return millis == null ? "null" : String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public class ApplicationFailedException extends RuntimeException {
+
+    public ApplicationFailedException(String line) {
+        super("The application has failed to start: " + line);
+    }
+
+    /**
+     * Creates an exception describing the application which has reported its failure.
+     *
+     * @param line       output line which has matched a failure pattern
+     * @param elapsed    time in milliseconds since the application has been started
+     * @param outputTail the last output of the application or null if it has not been kept
+     */
+    public ApplicationFailedException(String line, long elapsed, String outputTail) {
+        super(FailureMessages.describe("The application has failed to start: " + line, null, elapsed, outputTail));
+    }
+}
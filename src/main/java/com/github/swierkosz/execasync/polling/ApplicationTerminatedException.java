@@ -21,4 +21,15 @@ public class ApplicationTerminatedException extends RuntimeException {
     public ApplicationTerminatedException() {
         super("The application has exited prematurely");
     }
+
+    /**
+     * Creates an exception describing how the application has exited.
+     *
+     * @param exitCode   exit code or null if it is not known
+     * @param elapsed    time in milliseconds since the application has been started
+     * @param outputTail the last output of the application or null if it has not been kept
+     */
+    public ApplicationTerminatedException(Integer exitCode, long elapsed, String outputTail) {
+        super(FailureMessages.describe("The application has exited prematurely", exitCode, elapsed, outputTail));
+    }
 }
@@ -21,4 +21,14 @@ public class ApplicationTimeoutException extends RuntimeException {
     public ApplicationTimeoutException() {
         super("The application has not become ready within given time limit");
     }
+
+    /**
+     * Creates an exception describing the application which is still not ready.
+     *
+     * @param elapsed    time in milliseconds since the application has been started
+     * @param outputTail the last output of the application or null if it has not been kept
+     */
+    public ApplicationTimeoutException(long elapsed, String outputTail) {
+        super(FailureMessages.describe("The application has not become ready within given time limit", null, elapsed, outputTail));
+    }
 }
@@ -0,0 +1,38 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Describes the state of an application which has not become ready.
+ */
+final class FailureMessages {
+
+    private FailureMessages() {
+    }
+
+    static String describe(String message, Integer exitCode, long elapsed, String outputTail) {
+        StringBuilder description = new StringBuilder(message);
+        if (exitCode != null) {
+            description.append(" with exit code ").append(exitCode);
+        }
+        description.append(" after ").append(elapsed).append(" ms");
+        if (outputTail != null && !outputTail.isEmpty()) {
+            description.append(", last output:\n").append(outputTail);
+        }
+        return description.toString();
+    }
+}
@@ -16,22 +16,100 @@ package com.github.swierkosz.execasync.polling;
  * limitations under the License.
  */
 
-import com.jayway.awaitility.core.ConditionTimeoutException;
-
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
-import static com.jayway.awaitility.Awaitility.await;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Evaluates a condition periodically until it is met. Delays between evaluations are decided by a
+ * {@link PollingStrategy}. Waiting between evaluations can be cut short with {@link #wakeUp()}, so that a change
+ * signalled by another thread is noticed immediately.
+ */
 public class Poller {
 
+    private static final long DEFAULT_POLL_INTERVAL = 100;
+
+    private final Object lock = new Object();
+    private volatile PollingStrategy pollingStrategy;
+    private boolean wokenUp = false;
+
+    public Poller() {
+        this(DEFAULT_POLL_INTERVAL, MILLISECONDS);
+    }
+
+    public Poller(long pollInterval, TimeUnit unit) {
+        this(PollingStrategies.fixedInterval(pollInterval, unit));
+    }
+
+    public Poller(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = pollingStrategy;
+    }
+
+    public PollingStrategy getPollingStrategy() {
+        return pollingStrategy;
+    }
+
+    public void setPollingStrategy(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = pollingStrategy;
+    }
+
     public void awaitAtMost(int timeout, TimeUnit unit, Callable<Boolean> callable) {
+        PollingStrategy strategy = pollingStrategy;
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+        long initialDelay = MILLISECONDS.toNanos(strategy.getInitialDelay());
+        if (initialDelay > 0) {
+            sleep(Math.min(initialDelay, Math.max(deadline - start, 0)));
+        }
+        int attempt = 0;
+        while (!evaluate(callable)) {
+            long now = System.nanoTime();
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                throw new ApplicationTimeoutException();
+            }
+            long delay = strategy.getNextDelay(++attempt, NANOSECONDS.toMillis(now - start));
+            sleep(Math.min(remaining, MILLISECONDS.toNanos(delay)));
+        }
+    }
+
+    /**
+     * Makes the awaiting thread evaluate the condition without waiting for the rest of the poll interval.
+     */
+    public void wakeUp() {
+        synchronized (lock) {
+            wokenUp = true;
+            lock.notifyAll();
+        }
+    }
+
+    private static boolean evaluate(Callable<Boolean> callable) {
         try {
-            await()
-                    .atMost(timeout, unit)
-                    .until(callable);
-        } catch (ConditionTimeoutException ignored) {
-            throw new ApplicationTimeoutException();
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void sleep(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        synchronized (lock) {
+            try {
+                long remaining = nanos;
+                while (!wokenUp && remaining > 0) {
+                    NANOSECONDS.timedWait(lock, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the application", e);
+            } finally {
+                wokenUp = false;
+            }
         }
     }
 }
@@ -0,0 +1,202 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for commonly used {@link PollingStrategy polling strategies}.
+ */
+public final class PollingStrategies {
+
+    private PollingStrategies() {
+    }
+
+    /**
+     * Evaluates the condition immediately and then every given interval.
+     *
+     * @param interval interval between evaluations
+     * @param unit     unit of the interval
+     * @return polling strategy
+     */
+    public static PollingStrategy fixedInterval(long interval, TimeUnit unit) {
+        return new FixedInterval(toMillis(interval, unit));
+    }
+
+    /**
+     * Evaluates the condition immediately and then doubles the interval after each evaluation, up to the given
+     * maximum.
+     *
+     * @param initialInterval interval after the first evaluation
+     * @param maxInterval     maximum interval
+     * @param unit            unit of the intervals
+     * @return polling strategy
+     */
+    public static PollingStrategy exponentialBackoff(long initialInterval, long maxInterval, TimeUnit unit) {
+        return exponentialBackoff(initialInterval, maxInterval, unit, 2, 0);
+    }
+
+    /**
+     * Evaluates the condition immediately and then multiplies the interval after each evaluation, up to the given
+     * maximum. Each interval is shortened by a random fraction of itself, not greater than the given jitter, so that
+     * many applications started together do not probe at the same moments.
+     *
+     * @param initialInterval interval after the first evaluation
+     * @param maxInterval     maximum interval
+     * @param unit            unit of the intervals
+     * @param multiplier      factor by which the interval grows, at least 1
+     * @param jitter          maximum fraction of the interval chosen at random, between 0 and 1
+     * @return polling strategy
+     */
+    public static PollingStrategy exponentialBackoff(long initialInterval, long maxInterval, TimeUnit unit,
+                                                     double multiplier, double jitter) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplier has to be at least 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter has to be between 0 and 1");
+        }
+        if (maxInterval < initialInterval) {
+            throw new IllegalArgumentException("Maximum interval has to be at least the initial interval");
+        }
+        return new ExponentialBackoff(toMillis(initialInterval, unit), toMillis(maxInterval, unit), multiplier, jitter);
+    }
+
+    /**
+     * Evaluates the condition every tight interval during the given period, then every relaxed interval. It suits
+     * applications which usually start quickly, but sometimes take much longer.
+     *
+     * @param tightInterval   interval during the tight period
+     * @param tightPeriod     duration of the tight period, counted from the start of waiting
+     * @param relaxedInterval interval after the tight period
+     * @param unit            unit of the intervals and the period
+     * @return polling strategy
+     */
+    public static PollingStrategy tightThenRelaxed(long tightInterval, long tightPeriod, long relaxedInterval,
+                                                   TimeUnit unit) {
+        return new TightThenRelaxed(toMillis(tightInterval, unit), toMillis(tightPeriod, unit),
+                toMillis(relaxedInterval, unit));
+    }
+
+    /**
+     * Delays the first evaluation of the condition made by the given strategy.
+     *
+     * @param delay    delay before the first evaluation
+     * @param unit     unit of the delay
+     * @param strategy strategy deciding about the delays between evaluations
+     * @return polling strategy
+     */
+    public static PollingStrategy withInitialDelay(long delay, TimeUnit unit, PollingStrategy strategy) {
+        return new InitialDelay(toMillis(delay, unit), strategy);
+    }
+
+    private static long toMillis(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+        return unit.toMillis(duration);
+    }
+
+    private static class FixedInterval implements PollingStrategy {
+        private final long interval;
+
+        FixedInterval(long interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return 0;
+        }
+
+        @Override
+        public long getNextDelay(int attempt, long elapsed) {
+            return interval;
+        }
+    }
+
+    private static class ExponentialBackoff implements PollingStrategy {
+        private final long initialInterval;
+        private final long maxInterval;
+        private final double multiplier;
+        private final double jitter;
+
+        ExponentialBackoff(long initialInterval, long maxInterval, double multiplier, double jitter) {
+            this.initialInterval = initialInterval;
+            this.maxInterval = maxInterval;
+            this.multiplier = multiplier;
+            this.jitter = jitter;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return 0;
+        }
+
+        @Override
+        public long getNextDelay(int attempt, long elapsed) {
+            double interval = Math.min(initialInterval * Math.pow(multiplier, attempt - 1), maxInterval);
+            if (jitter > 0) {
+                interval -= interval * jitter * ThreadLocalRandom.current().nextDouble();
+            }
+            return (long) interval;
+        }
+    }
+
+    private static class TightThenRelaxed implements PollingStrategy {
+        private final long tightInterval;
+        private final long tightPeriod;
+        private final long relaxedInterval;
+
+        TightThenRelaxed(long tightInterval, long tightPeriod, long relaxedInterval) {
+            this.tightInterval = tightInterval;
+            this.tightPeriod = tightPeriod;
+            this.relaxedInterval = relaxedInterval;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return 0;
+        }
+
+        @Override
+        public long getNextDelay(int attempt, long elapsed) {
+            return elapsed < tightPeriod ? tightInterval : relaxedInterval;
+        }
+    }
+
+    private static class InitialDelay implements PollingStrategy {
+        private final long delay;
+        private final PollingStrategy strategy;
+
+        InitialDelay(long delay, PollingStrategy strategy) {
+            this.delay = delay;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return delay;
+        }
+
+        @Override
+        public long getNextDelay(int attempt, long elapsed) {
+            return strategy.getNextDelay(attempt, elapsed);
+        }
+    }
+}
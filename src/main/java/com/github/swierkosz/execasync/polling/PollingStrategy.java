@@ -0,0 +1,39 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Decides how long {@link Poller} waits between evaluations of a condition.
+ */
+public interface PollingStrategy {
+
+    /**
+     * Returns the delay before the condition is evaluated for the first time.
+     *
+     * @return delay in milliseconds
+     */
+    long getInitialDelay();
+
+    /**
+     * Returns the delay before the next evaluation of the condition.
+     *
+     * @param attempt number of evaluations so far, starting with 1
+     * @param elapsed time since waiting has started in milliseconds
+     * @return delay in milliseconds
+     */
+    long getNextDelay(int attempt, long elapsed);
+}
@@ -0,0 +1,275 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads information about processes from the proc file system, available on Linux.
+ */
+public class ProcFileSystem {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int STATE_FIELD = 2;
+    private static final int PARENT_PID_FIELD = 3;
+    private static final int SESSION_FIELD = 5;
+    private static final int START_TIME_FIELD = 21;
+    private static final String ZOMBIE = "Z";
+
+    private final File root;
+
+    public ProcFileSystem() {
+        this(new File("/proc"));
+    }
+
+    public ProcFileSystem(File root) {
+        this.root = root;
+    }
+
+    public boolean isSupported() {
+        return new File(root, "self").exists() || new File(root, "1").exists();
+    }
+
+    /**
+     * Returns the pid of the current JVM.
+     *
+     * @return pid or null if it cannot be determined
+     */
+    public Integer getCurrentPid() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        try {
+            return Integer.valueOf(name.substring(0, name.indexOf('@')));
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the start time of a process, which together with the pid identifies a process even if the pid has been
+     * reused.
+     *
+     * @param pid process id
+     * @return start time in clock ticks since boot or null if there is no such process
+     */
+    public Long getStartTime(int pid) {
+        String[] fields = readStat(pid);
+        return fields == null ? null : Long.valueOf(fields[START_TIME_FIELD]);
+    }
+
+    /**
+     * Returns true if the process with the given pid and start time is still alive. A zombie, which has exited but has
+     * not been reaped yet, is not alive.
+     *
+     * @param pid       process id
+     * @param startTime start time in clock ticks since boot
+     * @return true if the process is alive
+     */
+    public boolean isAlive(int pid, long startTime) {
+        String[] fields = readStat(pid);
+        return fields != null && !ZOMBIE.equals(fields[STATE_FIELD]) && Long.parseLong(fields[START_TIME_FIELD]) == startTime;
+    }
+
+    /**
+     * Returns the session of a process. A process started with setsid leads a session whose id is its own pid.
+     *
+     * @param pid process id
+     * @return session id or null if there is no such process
+     */
+    public Integer getSessionId(int pid) {
+        String[] fields = readStat(pid);
+        return fields == null ? null : Integer.valueOf(fields[SESSION_FIELD]);
+    }
+
+    /**
+     * Returns all processes of a session, including those whose parents have already terminated.
+     *
+     * @param sessionId session id
+     * @return pids of processes in the session
+     */
+    public List<Integer> getSessionMembers(int sessionId) {
+        List<Integer> members = new ArrayList<Integer>();
+        for (int pid : getPids()) {
+            String[] fields = readStat(pid);
+            if (fields != null && Integer.parseInt(fields[SESSION_FIELD]) == sessionId) {
+                members.add(pid);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Returns direct children of a process.
+     *
+     * @param pid process id
+     * @return pids of children
+     */
+    public List<Integer> getChildren(int pid) {
+        List<Integer> children = new ArrayList<Integer>();
+        for (int candidate : getPids()) {
+            String[] fields = readStat(candidate);
+            if (fields != null && Integer.parseInt(fields[PARENT_PID_FIELD]) == pid) {
+                children.add(candidate);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Returns all descendants of a process, parents before their children. The proc file system is read once and the
+     * tree is walked in memory, so a pid reused while reading cannot make the walk loop.
+     *
+     * @param pid process id
+     * @return pids of descendants
+     */
+    public List<Integer> getDescendants(int pid) {
+        return getDescendants(Collections.singletonList(pid));
+    }
+
+    /**
+     * Returns all descendants of the given processes, reading the proc file system once for all of them.
+     *
+     * @param pids process ids
+     * @return pids of descendants, each only once and not including the given processes
+     */
+    public List<Integer> getDescendants(Collection<Integer> pids) {
+        Map<Integer, List<Integer>> childrenByParent = getChildrenByParent();
+        List<Integer> descendants = new ArrayList<Integer>();
+        Set<Integer> visited = new HashSet<Integer>(pids);
+        for (Integer pid : pids) {
+            addDescendants(pid, childrenByParent, visited, descendants);
+        }
+        return descendants;
+    }
+
+    /**
+     * Returns the command line of a process.
+     *
+     * @param pid process id
+     * @return command line or an empty list if there is no such process
+     */
+    public List<String> getCommandLine(int pid) {
+        byte[] content = read(new File(new File(root, String.valueOf(pid)), "cmdline"));
+        if (content == null || content.length == 0) {
+            return Collections.emptyList();
+        }
+        String commandLine = new String(content, UTF_8);
+        if (commandLine.endsWith("\0")) {
+            commandLine = commandLine.substring(0, commandLine.length() - 1);
+        }
+        return Arrays.asList(commandLine.split("\0", -1));
+    }
+
+    /**
+     * Reads fields of /proc/[pid]/stat. The command name in the second field may contain spaces and parentheses, so
+     * the remaining fields are counted from the last closing parenthesis.
+     */
+    private String[] readStat(int pid) {
+        byte[] content = read(new File(new File(root, String.valueOf(pid)), "stat"));
+        if (content == null) {
+            return null;
+        }
+        String stat = new String(content, UTF_8);
+        int commandEnd = stat.lastIndexOf(')');
+        if (commandEnd < 0) {
+            return null;
+        }
+        String[] rest = stat.substring(commandEnd + 1).trim().split("\\s+");
+        String[] fields = new String[rest.length + 2];
+        fields[0] = stat.substring(0, stat.indexOf(' '));
+        fields[1] = stat.substring(stat.indexOf('(') + 1, commandEnd);
+        System.arraycopy(rest, 0, fields, 2, rest.length);
+        return fields.length > START_TIME_FIELD ? fields : null;
+    }
+
+    private Map<Integer, List<Integer>> getChildrenByParent() {
+        Map<Integer, List<Integer>> childrenByParent = new HashMap<Integer, List<Integer>>();
+        for (int pid : getPids()) {
+            String[] fields = readStat(pid);
+            if (fields != null) {
+                Integer parentPid = Integer.valueOf(fields[PARENT_PID_FIELD]);
+                List<Integer> children = childrenByParent.get(parentPid);
+                if (children == null) {
+                    children = new ArrayList<Integer>();
+                    childrenByParent.put(parentPid, children);
+                }
+                children.add(pid);
+            }
+        }
+        return childrenByParent;
+    }
+
+    private static void addDescendants(int pid, Map<Integer, List<Integer>> childrenByParent, Set<Integer> visited,
+                                       List<Integer> descendants) {
+        List<Integer> children = childrenByParent.get(pid);
+        if (children == null) {
+            return;
+        }
+        for (Integer child : children) {
+            if (visited.add(child)) {
+                descendants.add(child);
+                addDescendants(child, childrenByParent, visited, descendants);
+            }
+        }
+    }
+
+    private List<Integer> getPids() {
+        File[] entries = root.listFiles();
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        List<Integer> pids = new ArrayList<Integer>();
+        for (File entry : entries) {
+            if (isPid(entry.getName())) {
+                pids.add(Integer.valueOf(entry.getName()));
+            }
+        }
+        return pids;
+    }
+
+    private static byte[] read(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    private static boolean isPid(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Finds the pid of a process started by Gradle, whose API does not expose it.
+ */
+public final class ProcessIds {
+
+    private static final int MAX_DEPTH = 2;
+
+    private ProcessIds() {
+    }
+
+    /**
+     * Returns the pid of the process started by the given exec handle. The {@link Process} is looked up in the
+     * internals of the handle first and, if it cannot be found there, among children of the current JVM running the
+     * given command line.
+     *
+     * @param execHandle     handle which has started the process
+     * @param commandLine    command line of the process
+     * @param procFileSystem proc file system used when the process cannot be found in the handle
+     * @return pid or null if it cannot be determined
+     */
+    public static Integer getPid(Object execHandle, List<String> commandLine, ProcFileSystem procFileSystem) {
+        Process process = findProcess(execHandle, 0);
+        if (process != null) {
+            Integer pid = getPid(process);
+            if (pid != null) {
+                return pid;
+            }
+        }
+        Integer currentPid = procFileSystem.getCurrentPid();
+        if (currentPid == null) {
+            return null;
+        }
+        for (Integer child : procFileSystem.getChildren(currentPid)) {
+            if (matches(procFileSystem.getCommandLine(child), commandLine)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    static Integer getPid(Process process) {
+        try {
+            Method pid = Process.class.getMethod("pid");
+            return ((Number) pid.invoke(process)).intValue();
+        } catch (NoSuchMethodException e) {
+            try {
+                Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return pid.getInt(process);
+            } catch (Exception ignored) {
+                return null;
+            }
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static Process findProcess(Object object, int depth) {
+        for (Class<?> type = object.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getType().isPrimitive()) {
+                    continue;
+                }
+                Object value = getValue(field, object);
+                if (value instanceof Process) {
+                    return (Process) value;
+                }
+                if (value != null && depth < MAX_DEPTH && value.getClass().getName().startsWith("org.gradle.process")) {
+                    Process process = findProcess(value, depth + 1);
+                    if (process != null) {
+                        return process;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object getValue(Field field, Object object) {
+        try {
+            field.setAccessible(true);
+            return field.get(object);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Compares arguments exactly and the executable by its file name, as it may have been resolved to a full path.
+     */
+    private static boolean matches(List<String> actual, List<String> expected) {
+        if (actual.size() != expected.size() || expected.isEmpty()) {
+            return false;
+        }
+        if (!fileName(actual.get(0)).equals(fileName(expected.get(0)))) {
+            return false;
+        }
+        return actual.subList(1, actual.size()).equals(expected.subList(1, expected.size()));
+    }
+
+    private static String fileName(String path) {
+        return path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terminates a process together with all its descendants, first gracefully and then forcibly.
+ */
+public class ProcessTree {
+
+    private static final long CHECK_INTERVAL = 50;
+
+    private final ProcFileSystem procFileSystem;
+
+    public ProcessTree(ProcFileSystem procFileSystem) {
+        this.procFileSystem = procFileSystem;
+    }
+
+    /**
+     * Sends SIGTERM to the process and its descendants, then SIGKILL to those still running after the grace period,
+     * and waits until all of them are gone. If the process leads its own session, processes of the session whose
+     * parents have already terminated are terminated as well, even if the process itself has already terminated.
+     * Processes are identified by their pids and start times, so that a reused pid is never signalled.
+     *
+     * @param pid         process id
+     * @param startTime   start time of the process recorded when it was started, or null if it is unknown; if the
+     *                    pid belongs to a process started at another time, neither it nor its session is signalled
+     * @param session     true if the process is known to have been started in its own session
+     * @param gracePeriod time given to the processes to terminate after SIGTERM
+     * @param timeout     time after which termination is given up, counted from the start
+     * @param unit        unit of the grace period and the timeout
+     * @throws ProcessTreeStillRunningException if any of the processes is still running after the timeout
+     */
+    public void terminate(int pid, Long startTime, boolean session, long gracePeriod, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        Map<Integer, Long> processes = collect(pid, startTime, session, new LinkedHashMap<Integer, Long>());
+        signal("-TERM", processes.keySet());
+        if (awaitTermination(processes, start + unit.toNanos(gracePeriod))) {
+            return;
+        }
+        signal("-KILL", collect(pid, startTime, session, processes).keySet());
+        if (!awaitTermination(processes, start + unit.toNanos(timeout))) {
+            throw new ProcessTreeStillRunningException(new ArrayList<Integer>(processes.keySet()), timeout, unit);
+        }
+    }
+
+    /**
+     * Adds the process, descendants of it and of the given processes, and members of its session to the given
+     * processes, removing those which have terminated. If the pid has been reused, only descendants of the given
+     * processes are added.
+     */
+    private Map<Integer, Long> collect(int pid, Long startTime, boolean session, Map<Integer, Long> processes) {
+        removeTerminated(processes);
+        List<Integer> candidates = new ArrayList<Integer>();
+        List<Integer> ancestors = new ArrayList<Integer>(processes.keySet());
+        if (!isReused(pid, startTime)) {
+            candidates.add(pid);
+            ancestors.add(pid);
+            Integer sessionId = procFileSystem.getSessionId(pid);
+            if (session || (sessionId != null && sessionId == pid)) {
+                candidates.addAll(procFileSystem.getSessionMembers(pid));
+            }
+        }
+        candidates.addAll(procFileSystem.getDescendants(ancestors));
+        for (Integer candidate : candidates) {
+            Long candidateStartTime = procFileSystem.getStartTime(candidate);
+            if (candidateStartTime != null && !processes.containsKey(candidate)
+                    && procFileSystem.isAlive(candidate, candidateStartTime)) {
+                processes.put(candidate, candidateStartTime);
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * Returns true if the pid belongs to another process than the one started at the given time. The kernel does not
+     * reuse a pid while it is still the id of a session, so orphans of a session whose leader pid has been reused
+     * cannot exist.
+     */
+    private boolean isReused(int pid, Long startTime) {
+        if (startTime == null) {
+            return false;
+        }
+        Long currentStartTime = procFileSystem.getStartTime(pid);
+        return currentStartTime != null && !currentStartTime.equals(startTime);
+    }
+
+    private boolean awaitTermination(Map<Integer, Long> processes, long deadline) {
+        while (true) {
+            removeTerminated(processes);
+            if (processes.isEmpty()) {
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(Math.min(CHECK_INTERVAL, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while terminating processes " + processes.keySet(), e);
+            }
+        }
+    }
+
+    private void removeTerminated(Map<Integer, Long> processes) {
+        List<Integer> terminated = new ArrayList<Integer>();
+        for (Map.Entry<Integer, Long> process : processes.entrySet()) {
+            if (!procFileSystem.isAlive(process.getKey(), process.getValue())) {
+                terminated.add(process.getKey());
+            }
+        }
+        processes.keySet().removeAll(terminated);
+    }
+
+    /**
+     * Sends a signal using the kill command, processes which have terminated in the meantime are ignored by it.
+     */
+    protected void signal(String signal, Collection<Integer> pids) {
+        if (pids.isEmpty()) {
+            return;
+        }
+        List<String> command = new ArrayList<String>();
+        command.add("kill");
+        command.add(signal);
+        for (Integer pid : pids) {
+            command.add(String.valueOf(pid));
+        }
+        try {
+            Process kill = new ProcessBuilder(command).redirectErrorStream(true).start();
+            kill.getOutputStream().close();
+            while (kill.getInputStream().read() != -1) {
+                // discards messages about processes which have already terminated
+            }
+            kill.waitFor();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot send " + signal + " to processes " + pids, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending " + signal + " to processes " + pids, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class ProcessTreeStillRunningException extends RuntimeException {
+
+    public ProcessTreeStillRunningException(List<Integer> pids, long timeout, TimeUnit unit) {
+        super("Processes " + pids + " are still running " + timeout + " " + unit.name().toLowerCase(Locale.ROOT) + " after termination has been requested");
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.swierkosz.execasync.reuse;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes a SHA-256 fingerprint of everything which defines a started application: its command line, environment
+ * and working directory.
+ */
+public final class Fingerprint {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Fingerprint() {
+    }
+
+    public static String of(List<String> commandLine, Map<String, ?> environment, File workingDir) {
+        MessageDigest digest = createDigest();
+        update(digest, "commandLine");
+        for (String argument : commandLine) {
+            update(digest, argument);
+        }
+        update(digest, "environment");
+        for (Map.Entry<String, ?> variable : new TreeMap<String, Object>(environment).entrySet()) {
+            update(digest, variable.getKey());
+            update(digest, String.valueOf(variable.getValue()));
+        }
+        update(digest, "workingDir");
+        update(digest, workingDir == null ? "" : workingDir.getAbsolutePath());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Adds a length-prefixed value, so that different splits of the same characters give different fingerprints.
+     */
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
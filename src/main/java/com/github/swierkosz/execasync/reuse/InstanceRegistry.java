@@ -0,0 +1,113 @@
+package com.github.swierkosz.execasync.reuse;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Stores {@link RegisteredInstance registered instances} as property files, one per task.
+ */
+public class InstanceRegistry {
+
+    private static final String PID = "pid";
+    private static final String START_TIME = "startTime";
+    private static final String FINGERPRINT = "fingerprint";
+
+    private final File directory;
+
+    public InstanceRegistry(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the instance registered under the given name.
+     *
+     * @param name name of the task
+     * @return instance or null if none has been registered or the registry file is corrupted
+     */
+    public RegisteredInstance read(String name) {
+        File file = getFile(name);
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            InputStream input = new FileInputStream(file);
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
+            return new RegisteredInstance(
+                    Integer.parseInt(properties.getProperty(PID)),
+                    Long.parseLong(properties.getProperty(START_TIME)),
+                    properties.getProperty(FINGERPRINT));
+        } catch (IOException ignored) {
+            return null;
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers an instance under the given name, replacing any previously registered one.
+     *
+     * @param name     name of the task
+     * @param instance running instance
+     */
+    public void write(String name, RegisteredInstance instance) {
+        Properties properties = new Properties();
+        properties.setProperty(PID, String.valueOf(instance.getPid()));
+        properties.setProperty(START_TIME, String.valueOf(instance.getStartTime()));
+        properties.setProperty(FINGERPRINT, instance.getFingerprint());
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + directory);
+        }
+        try {
+            OutputStream output = new FileOutputStream(getFile(name));
+            try {
+                properties.store(output, "Application started by ExecAsync");
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot register the application in " + getFile(name), e);
+        }
+    }
+
+    /**
+     * Removes the instance registered under the given name.
+     *
+     * @param name name of the task
+     */
+    public void delete(String name) {
+        File file = getFile(name);
+        if (file.exists() && !file.delete()) {
+            throw new IllegalStateException("Cannot delete " + file);
+        }
+    }
+
+    private File getFile(String name) {
+        return new File(directory, name + ".properties");
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.swierkosz.execasync.reuse;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A running application recorded by a build, so that a later build can reuse it.
+ */
+public class RegisteredInstance {
+
+    private final int pid;
+    private final long startTime;
+    private final String fingerprint;
+
+    public RegisteredInstance(int pid, long startTime, String fingerprint) {
+        this.pid = pid;
+        this.startTime = startTime;
+        this.fingerprint = fingerprint;
+    }
+
+    public int getPid() {
+        return pid;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return "pid " + pid;
+    }
+}
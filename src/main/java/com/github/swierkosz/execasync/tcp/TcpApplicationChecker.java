@@ -0,0 +1,119 @@
+package com.github.swierkosz.execasync.tcp;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Checks whether TCP connections can be established. All addresses are connected to at the same time with
+ * non-blocking channels waited for by a single {@link Selector}, and each connection is closed as soon as it has been
+ * established, without exchanging any data.
+ */
+public class TcpApplicationChecker {
+
+    public static final int DEFAULT_TIMEOUT = 5000;
+
+    private int connectTimeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Returns true if connections to all the addresses can be established. Unresolved addresses are resolved on each
+     * check.
+     *
+     * @param addresses addresses to connect to
+     * @return true if all connections have been established
+     */
+    public boolean isAccessible(List<InetSocketAddress> addresses) {
+        List<SocketChannel> channels = new ArrayList<SocketChannel>(addresses.size());
+        Selector selector = null;
+        try {
+            selector = Selector.open();
+            int pending = 0;
+            for (InetSocketAddress address : addresses) {
+                InetSocketAddress resolved = new InetSocketAddress(address.getHostString(), address.getPort());
+                if (resolved.isUnresolved()) {
+                    return false;
+                }
+                SocketChannel channel = SocketChannel.open();
+                channels.add(channel);
+                channel.configureBlocking(false);
+                if (!channel.connect(resolved)) {
+                    channel.register(selector, SelectionKey.OP_CONNECT);
+                    pending++;
+                }
+            }
+            return awaitConnections(selector, pending);
+        } catch (IOException ignored) {
+            return false;
+        } finally {
+            close(selector, channels);
+        }
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    private boolean awaitConnections(Selector selector, int pending) throws IOException {
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(connectTimeout);
+        while (pending > 0) {
+            long remaining = NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            selector.select(remaining);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (((SocketChannel) key.channel()).finishConnect()) {
+                    key.cancel();
+                    pending--;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void close(Selector selector, List<SocketChannel> channels) {
+        for (SocketChannel channel : channels) {
+            closeQuietly(channel);
+        }
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Decides whether a response body identifies the application as ready. The body is read as it streams in and
+ * an implementation should stop reading as soon as the result is known.
+ */
+public interface BodyPredicate {
+
+    /**
+     * Evaluates the response body.
+     *
+     * @param body decoded response body
+     * @return true if the application is ready
+     * @throws IOException if the body cannot be read
+     */
+    boolean matches(Reader body) throws IOException;
+}
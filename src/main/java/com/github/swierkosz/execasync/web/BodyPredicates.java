@@ -0,0 +1,61 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.regex.Pattern;
+
+/**
+ * Factory methods for commonly used {@link BodyPredicate body predicates}.
+ */
+public final class BodyPredicates {
+
+    private BodyPredicates() {
+    }
+
+    /**
+     * Matches a body containing the given regular expression.
+     *
+     * @param pattern regular expression
+     * @return body predicate
+     */
+    public static BodyPredicate regex(String pattern) {
+        return regex(Pattern.compile(pattern));
+    }
+
+    /**
+     * Matches a body containing the given regular expression. A match has to fit in
+     * {@value RegexBodyPredicate#DEFAULT_WINDOW} characters.
+     *
+     * @param pattern compiled regular expression
+     * @return body predicate
+     */
+    public static BodyPredicate regex(Pattern pattern) {
+        return new RegexBodyPredicate(pattern, RegexBodyPredicate.DEFAULT_WINDOW);
+    }
+
+    /**
+     * Matches a JSON object body with a top level field of the given value, e.g. {@code {"status":"UP"}}. Strings
+     * are compared after unescaping, other values as they appear in the body (e.g. {@code true} or {@code 1}).
+     *
+     * @param name          name of the field
+     * @param expectedValue expected value of the field
+     * @return body predicate
+     */
+    public static BodyPredicate jsonField(String name, String expectedValue) {
+        return new JsonFieldBodyPredicate(name, expectedValue);
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Scans a JSON object for a top level field without parsing the whole document. Nested values are skipped without
+ * being buffered and reading stops as soon as the field has been found. A body which is not a JSON object does not
+ * match.
+ */
+class JsonFieldBodyPredicate implements BodyPredicate {
+
+    private static final int END = -1;
+
+    private final String name;
+    private final String expectedValue;
+
+    JsonFieldBodyPredicate(String name, String expectedValue) {
+        this.name = name;
+        this.expectedValue = expectedValue;
+    }
+
+    @Override
+    public boolean matches(Reader body) throws IOException {
+        return new Scanner(body).findField();
+    }
+
+    @Override
+    public String toString() {
+        return "body with " + name + "=" + expectedValue;
+    }
+
+    private class Scanner {
+        private final Reader reader;
+        private int next = -2;
+
+        Scanner(Reader reader) {
+            this.reader = reader;
+        }
+
+        boolean findField() throws IOException {
+            if (readSkippingWhitespace() != '{') {
+                return false;
+            }
+            int c = readSkippingWhitespace();
+            if (c == '}') {
+                return false;
+            }
+            while (c == '"') {
+                String key = readString(true);
+                if (readSkippingWhitespace() != ':') {
+                    return false;
+                }
+                c = readSkippingWhitespace();
+                if (name.equals(key)) {
+                    return expectedValue.equals(readScalar(c));
+                }
+                skipValue(c);
+                if (readSkippingWhitespace() != ',') {
+                    return false;
+                }
+                c = readSkippingWhitespace();
+            }
+            return false;
+        }
+
+        private String readScalar(int first) throws IOException {
+            if (first == '"') {
+                return readString(true);
+            }
+            if (first == '{' || first == '[' || first == END) {
+                return null;
+            }
+            return readLiteral(first);
+        }
+
+        private void skipValue(int first) throws IOException {
+            if (first == '"') {
+                readString(false);
+            } else if (first == '{' || first == '[') {
+                int depth = 1;
+                while (depth > 0) {
+                    int c = read();
+                    if (c == END) {
+                        return;
+                    } else if (c == '"') {
+                        readString(false);
+                    } else if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                }
+            } else {
+                readLiteral(first);
+            }
+        }
+
+        private String readLiteral(int first) throws IOException {
+            StringBuilder literal = new StringBuilder();
+            int c = first;
+            while (c != END && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                literal.append((char) c);
+                c = read();
+            }
+            next = c;
+            return literal.toString();
+        }
+
+        private String readString(boolean keep) throws IOException {
+            StringBuilder string = keep ? new StringBuilder() : null;
+            int c;
+            while ((c = read()) != '"') {
+                if (c == END) {
+                    return null;
+                }
+                if (c == '\\') {
+                    c = readEscaped();
+                }
+                if (keep) {
+                    string.append((char) c);
+                }
+            }
+            return keep ? string.toString() : null;
+        }
+
+        private int readEscaped() throws IOException {
+            int c = read();
+            switch (c) {
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        code = (code << 4) + Character.digit(read(), 16);
+                    }
+                    return code;
+                default:
+                    return c;
+            }
+        }
+
+        private int readSkippingWhitespace() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c != END && Character.isWhitespace(c));
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (next != -2) {
+                int c = next;
+                next = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
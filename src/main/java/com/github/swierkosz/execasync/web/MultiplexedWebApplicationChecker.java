@@ -0,0 +1,250 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Checks many endpoints at the same time with a minimal HTTP/1.1 client driven by a single {@link Selector}, so no
+ * thread is needed per endpoint. Only the status line of each response is read, then the connection is closed.
+ * Only plain HTTP URLs are supported.
+ */
+public class MultiplexedWebApplicationChecker {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int MAX_STATUS_LINE_LENGTH = 1024;
+
+    private int connectTimeout = WebApplicationChecker.DEFAULT_TIMEOUT;
+    private int readTimeout = WebApplicationChecker.DEFAULT_TIMEOUT;
+    private String requestMethod = "GET";
+
+    /**
+     * Sends a request to every endpoint and waits for all the responses, at most for the connect timeout and the read
+     * timeout together.
+     *
+     * @param endpoints endpoints to be checked
+     * @return endpoints which have responded with the expected status code
+     */
+    public List<WebEndpoint> getAccessibleEndpoints(Collection<WebEndpoint> endpoints) {
+        List<WebEndpoint> accessible = new ArrayList<WebEndpoint>();
+        List<SocketChannel> channels = new ArrayList<SocketChannel>(endpoints.size());
+        Selector selector = null;
+        try {
+            selector = Selector.open();
+            int pending = 0;
+            for (WebEndpoint endpoint : endpoints) {
+                if (start(selector, endpoint, channels)) {
+                    pending++;
+                }
+            }
+            long deadline = System.nanoTime() + MILLISECONDS.toNanos((long) connectTimeout + readTimeout);
+            while (pending > 0) {
+                long remaining = NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                selector.select(remaining);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Exchange exchange = (Exchange) key.attachment();
+                    if (!proceed(key, exchange)) {
+                        key.cancel();
+                        closeQuietly((SocketChannel) key.channel());
+                        pending--;
+                        if (exchange.endpoint.getExpectedResponseCode() == exchange.responseCode) {
+                            accessible.add(exchange.endpoint);
+                        }
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // endpoints which have not responded yet are not accessible
+        } finally {
+            for (SocketChannel channel : channels) {
+                closeQuietly(channel);
+            }
+            if (selector != null) {
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return accessible;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public void setRequestMethod(String requestMethod) {
+        this.requestMethod = requestMethod;
+    }
+
+    private boolean start(Selector selector, WebEndpoint endpoint, List<SocketChannel> channels) throws IOException {
+        URL url = toUrl(endpoint.getUrl());
+        int port = url.getPort() < 0 ? url.getDefaultPort() : url.getPort();
+        InetSocketAddress address = new InetSocketAddress(url.getHost(), port);
+        if (address.isUnresolved()) {
+            return false;
+        }
+        SocketChannel channel = SocketChannel.open();
+        channels.add(channel);
+        channel.configureBlocking(false);
+        Exchange exchange = new Exchange(endpoint, createRequest(url));
+        try {
+            int interest = channel.connect(address) ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT;
+            channel.register(selector, interest, exchange);
+            return true;
+        } catch (IOException ignored) {
+            closeQuietly(channel);
+            return false;
+        }
+    }
+
+    /**
+     * Moves the exchange forward according to the readiness of its channel.
+     *
+     * @return false once the exchange is complete, either with a status code or with a failure
+     */
+    private static boolean proceed(SelectionKey key, Exchange exchange) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            if (key.isConnectable()) {
+                if (channel.finishConnect()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                }
+            } else if (key.isWritable()) {
+                channel.write(exchange.request);
+                if (!exchange.request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else if (key.isReadable()) {
+                if (channel.read(exchange.response) < 0) {
+                    return false;
+                }
+                return !exchange.parseStatusLine();
+            }
+            return true;
+        } catch (IOException ignored) {
+            return false;
+        }
+    }
+
+    private ByteBuffer createRequest(URL url) {
+        String path = url.getFile().isEmpty() ? "/" : url.getFile();
+        String host = url.getPort() < 0 ? url.getHost() : url.getHost() + ":" + url.getPort();
+        String request = requestMethod + " " + path + " HTTP/1.1\r\n"
+                + "Host: " + host + "\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        return ByteBuffer.wrap(request.getBytes(ASCII));
+    }
+
+    /**
+     * Checks whether the url can be checked together with other endpoints.
+     *
+     * @param url url of an endpoint
+     * @throws IllegalArgumentException if the url is not a valid plain HTTP url
+     */
+    public static void validateUrl(String url) {
+        toUrl(url);
+    }
+
+    private static URL toUrl(String url) {
+        if (url == null) {
+            throw new IllegalArgumentException("URL cannot be null");
+        }
+        try {
+            URL parsed = new URL(url);
+            if (!"http".equals(parsed.getProtocol())) {
+                throw new IllegalArgumentException("Only http URLs can be checked together: " + url);
+            }
+            return parsed;
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid URL: " + url, e);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static class Exchange {
+        private final WebEndpoint endpoint;
+        private final ByteBuffer request;
+        private final ByteBuffer response = ByteBuffer.allocate(MAX_STATUS_LINE_LENGTH);
+        private int responseCode = -1;
+
+        Exchange(WebEndpoint endpoint, ByteBuffer request) {
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+
+        /**
+         * Parses the status code once the whole status line, e.g. {@code HTTP/1.1 200 OK}, has been received.
+         *
+         * @return true if the status line is complete or will never be
+         */
+        boolean parseStatusLine() {
+            int end = -1;
+            for (int i = 0; i < response.position(); i++) {
+                if (response.get(i) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                return !response.hasRemaining();
+            }
+            String statusLine = new String(response.array(), 0, end, ASCII).trim();
+            String[] parts = statusLine.split(" ", 3);
+            if (parts.length >= 2 && parts[0].startsWith("HTTP/")) {
+                try {
+                    responseCode = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException ignored) {
+                    // not a valid response, the endpoint is not accessible
+                }
+            }
+            return true;
+        }
+    }
+}
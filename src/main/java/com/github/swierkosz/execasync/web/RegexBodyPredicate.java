@@ -0,0 +1,63 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Looks for a regular expression in a sliding window over the body, so that the body is never fully buffered. The
+ * window keeps the last {@code window} characters read before each new chunk, so a match up to that length is found
+ * even if it spans chunks.
+ */
+class RegexBodyPredicate implements BodyPredicate {
+
+    static final int DEFAULT_WINDOW = 8192;
+
+    private final Pattern pattern;
+    private final int window;
+
+    RegexBodyPredicate(Pattern pattern, int window) {
+        this.pattern = pattern;
+        this.window = window;
+    }
+
+    @Override
+    public boolean matches(Reader body) throws IOException {
+        StringBuilder text = new StringBuilder();
+        Matcher matcher = pattern.matcher(text);
+        char[] chunk = new char[Math.min(window, 4096)];
+        int read;
+        while ((read = body.read(chunk)) >= 0) {
+            if (text.length() > window) {
+                text.delete(0, text.length() - window);
+            }
+            text.append(chunk, 0, read);
+            if (matcher.reset(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "body matching " + pattern;
+    }
+}
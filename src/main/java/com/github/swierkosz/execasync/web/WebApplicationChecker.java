@@ -17,23 +17,124 @@ package com.github.swierkosz.execasync.web;
  */
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
 
+/**
+ * Checks whether a URL responds with the expected status code. Each response body is drained and closed, so that the
+ * underlying connection is returned to the keep-alive cache of {@link HttpURLConnection} and reused by the next check
+ * instead of opening a new socket every time.
+ */
 public class WebApplicationChecker {
 
-    private static final int ATTEMPT_TIMEOUT = 5000;
+    public static final int DEFAULT_TIMEOUT = 5000;
+    private static final int MAX_DRAINED_BYTES = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] drainBuffer = new byte[4096];
+    private int connectTimeout = DEFAULT_TIMEOUT;
+    private int readTimeout = DEFAULT_TIMEOUT;
+    private String requestMethod = "GET";
+    private BodyPredicate bodyPredicate;
 
     public boolean isUrlAccessible(String url, int expectedResponseCode) {
+        HttpURLConnection connection = null;
         try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setConnectTimeout(ATTEMPT_TIMEOUT);
-            connection.setReadTimeout(ATTEMPT_TIMEOUT);
-            connection.setRequestMethod("GET");
-            return expectedResponseCode == connection.getResponseCode();
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setRequestMethod(requestMethod);
+            int responseCode = connection.getResponseCode();
+            InputStream body = responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            boolean accessible = expectedResponseCode == responseCode;
+            boolean bodyRead = false;
+            if (accessible && bodyPredicate != null) {
+                accessible = bodyPredicate.matches(body == null
+                        ? new StringReader("")
+                        : new InputStreamReader(body, getCharset(connection.getContentType())));
+                bodyRead = true;
+            }
+            release(connection, body, !bodyRead);
+            return accessible;
         } catch (IOException ignored) {
+            if (connection != null) {
+                connection.disconnect();
+            }
             return false;
         }
     }
 
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public void setRequestMethod(String requestMethod) {
+        this.requestMethod = requestMethod;
+    }
+
+    /**
+     * Sets the predicate which the response body has to match, in addition to the response code.
+     *
+     * @param bodyPredicate predicate or null if the body does not matter
+     */
+    public void setBodyPredicate(BodyPredicate bodyPredicate) {
+        this.bodyPredicate = bodyPredicate;
+    }
+
+    /**
+     * Releases the connection without affecting the result of the check. The rest of an unread response body is
+     * drained, which lets the connection be reused; a body larger than {@value #MAX_DRAINED_BYTES} bytes is not worth
+     * reading, the connection is closed instead. A body which the predicate has already decided on is only closed,
+     * so that the check does not wait for the rest of it.
+     */
+    private void release(HttpURLConnection connection, InputStream body, boolean drain) {
+        if (body == null) {
+            return;
+        }
+        try {
+            try {
+                int drained = 0;
+                int read;
+                while (drain && (read = body.read(drainBuffer)) >= 0) {
+                    drained += read;
+                    if (drained > MAX_DRAINED_BYTES) {
+                        connection.disconnect();
+                        return;
+                    }
+                }
+            } finally {
+                body.close();
+            }
+        } catch (IOException ignored) {
+            connection.disconnect();
+        }
+    }
+
+    private static Charset getCharset(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String[] nameAndValue = parameter.trim().split("=", 2);
+                if (nameAndValue.length == 2 && "charset".equalsIgnoreCase(nameAndValue[0].trim())) {
+                    try {
+                        return Charset.forName(nameAndValue[1].trim().replace("\"", ""));
+                    } catch (IllegalCharsetNameException ignored) {
+                        break;
+                    } catch (UnsupportedCharsetException ignored) {
+                        break;
+                    }
+                }
+            }
+        }
+        return UTF_8;
+    }
 }
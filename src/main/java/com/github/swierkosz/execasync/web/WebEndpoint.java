@@ -0,0 +1,61 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A URL together with the HTTP status code which identifies it as ready.
+ */
+public class WebEndpoint {
+
+    private final String url;
+    private final int expectedResponseCode;
+
+    public WebEndpoint(String url, int expectedResponseCode) {
+        this.url = url;
+        this.expectedResponseCode = expectedResponseCode;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getExpectedResponseCode() {
+        return expectedResponseCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        WebEndpoint that = (WebEndpoint) o;
+        return expectedResponseCode == that.expectedResponseCode && url.equals(that.url);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * url.hashCode() + expectedResponseCode;
+    }
+
+    @Override
+    public String toString() {
+        return url + " (" + expectedResponseCode + ")";
+    }
+}
@@ -16,10 +16,24 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.console.AsyncOutputStream;
+import com.github.swierkosz.execasync.console.FanOutOutputStream;
+import com.github.swierkosz.execasync.console.OverflowPolicy;
+import com.github.swierkosz.execasync.metrics.StartupHistory;
+import com.github.swierkosz.execasync.metrics.StartupMetrics;
+import com.github.swierkosz.execasync.metrics.StartupRegressionException;
 import com.github.swierkosz.execasync.polling.ApplicationTerminatedException;
+import com.github.swierkosz.execasync.polling.ApplicationTimeoutException;
 import com.github.swierkosz.execasync.polling.Poller;
+import com.github.swierkosz.execasync.polling.PollingStrategy;
+import com.github.swierkosz.execasync.process.ProcFileSystem;
+import com.github.swierkosz.execasync.reuse.Fingerprint;
+import com.github.swierkosz.execasync.reuse.InstanceRegistry;
+import com.github.swierkosz.execasync.reuse.RegisteredInstance;
+import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.ExecHandleBuilder;
+import org.gradle.process.internal.ExecHandleListener;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,15 +41,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.gradle.process.internal.ExecHandleState.ABORTED;
 import static org.gradle.process.internal.ExecHandleState.STARTED;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
@@ -49,6 +78,12 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
     @Mock
     private Poller poller;
 
+    @Mock
+    private InstanceRegistry instanceRegistry;
+
+    @Mock
+    private ProcFileSystem procFileSystem;
+
     private TestableAbstractPollingExecAsyncTask task;
 
     @Before
@@ -60,6 +95,10 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
         given(execHandle.getState()).willReturn(STARTED);
 
         task.setPoller(poller);
+        task.setInstanceRegistry(instanceRegistry);
+        task.setProcFileSystem(procFileSystem);
+        given(procFileSystem.isSupported()).willReturn(true);
+        getStartupHistoryFile().delete();
     }
 
     @Test
@@ -84,6 +123,42 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
         assertThat(result).isEqualTo(300);
     }
 
+    @Test
+    public void shouldSetAndReturnPollingStrategy() {
+        // Given
+        PollingStrategy pollingStrategy = mock(PollingStrategy.class);
+
+        // When
+        task.setPollingStrategy(pollingStrategy);
+        PollingStrategy result = task.getPollingStrategy();
+
+        // Then
+        assertThat(result).isSameAs(pollingStrategy);
+    }
+
+    @Test
+    public void shouldReturnDefaultPollingStrategy() {
+        // When
+        PollingStrategy result = task.getPollingStrategy();
+
+        // Then
+        assertThat(result.getInitialDelay()).isEqualTo(0L);
+        assertThat(result.getNextDelay(1, 0)).isEqualTo(100L);
+    }
+
+    @Test
+    public void shouldPollUsingPollingStrategy() {
+        // Given
+        PollingStrategy pollingStrategy = mock(PollingStrategy.class);
+        task.setPollingStrategy(pollingStrategy);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(poller).setPollingStrategy(pollingStrategy);
+    }
+
     @Test
     public void shouldWaitForApplicationToStart() {
         // Given
@@ -94,7 +169,54 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
         task.exec();
 
         // Then
-        verify(poller).awaitAtMost(eq(timeout), eq(TimeUnit.SECONDS), any(Callable.class));
+        ArgumentCaptor<Integer> timeoutCaptor = ArgumentCaptor.forClass(Integer.class);
+        verify(poller).awaitAtMost(timeoutCaptor.capture(), eq(TimeUnit.MILLISECONDS), any(Callable.class));
+        assertThat(timeoutCaptor.getValue()).isLessThanOrEqualTo(timeout * 1000).isGreaterThan(timeout * 1000 - 1000);
+    }
+
+    @Test
+    public void shouldCountTimeoutFromStartOfApplicationWhenAwaitingLater() throws InterruptedException {
+        // Given
+        task.setTimeout(1);
+        task.setSpawnOnly(true);
+        task.exec();
+        Thread.sleep(200);
+
+        // When
+        task.awaitApplication();
+
+        // Then
+        ArgumentCaptor<Integer> timeoutCaptor = ArgumentCaptor.forClass(Integer.class);
+        verify(poller).awaitAtMost(timeoutCaptor.capture(), eq(TimeUnit.MILLISECONDS), any(Callable.class));
+        assertThat(timeoutCaptor.getValue()).isLessThanOrEqualTo(800);
+    }
+
+    @Test
+    public void shouldOnlyStartApplicationInSpawnOnlyMode() {
+        // Given
+        task.setSpawnOnly(true);
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.isSpawnOnly()).isTrue();
+        verify(execHandle).start();
+        verify(poller, never()).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
+    }
+
+    @Test
+    public void shouldAwaitApplicationOnlyUntilItIsReady() {
+        // Given
+        task.setSpawnOnly(true);
+        task.exec();
+
+        // When
+        task.awaitApplication();
+        task.awaitApplication();
+
+        // Then
+        verify(poller, times(1)).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
     }
 
     @Test(expected = ApplicationTerminatedException.class)
@@ -112,6 +234,275 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
         // Then exception is thrown
     }
 
+    @Test
+    public void shouldDescribeTerminatedApplicationWithExitCodeAndLastOutput() throws Exception {
+        // Given
+        ExecResult execResult = mock(ExecResult.class);
+        given(execResult.getExitValue()).willReturn(3);
+        given(execHandle.waitForFinish()).willReturn(execResult);
+        given(execHandle.getState()).willReturn(ABORTED);
+        ByteArrayOutputStream standardOutput = new ByteArrayOutputStream();
+        task.setStandardOutput(standardOutput);
+        task.setSpawnOnly(true);
+        task.exec();
+        writeToStandardOutput("Port 8080 is already in use\n");
+        task.awaitApplication();
+        ArgumentCaptor<Callable> callableArgumentCaptor = ArgumentCaptor.forClass(Callable.class);
+        verify(poller).awaitAtMost(anyInt(), any(TimeUnit.class), callableArgumentCaptor.capture());
+
+        // When
+        try {
+            callableArgumentCaptor.getValue().call();
+            failBecauseExceptionWasNotThrown(ApplicationTerminatedException.class);
+        } catch (ApplicationTerminatedException e) {
+            // Then
+            assertThat(e.getMessage()).contains("with exit code 3");
+            assertThat(e.getMessage()).endsWith("last output:\nPort 8080 is already in use\n");
+        }
+        assertThat(standardOutput.toString()).isEqualTo("Port 8080 is already in use\n");
+    }
+
+    @Test
+    public void shouldDescribeApplicationWhichHasNotBecomeReadyInTimeWithLastOutput() throws Exception {
+        // Given
+        ApplicationTimeoutException timeout = new ApplicationTimeoutException();
+        willThrow(timeout)
+                .given(poller).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
+        task.setStandardOutput(new ByteArrayOutputStream());
+        task.setOutputTailSize(10);
+        task.setSpawnOnly(true);
+        task.exec();
+        writeToStandardOutput("Connecting to database...\nRetrying\n");
+
+        // When
+        try {
+            task.awaitApplication();
+            failBecauseExceptionWasNotThrown(ApplicationTimeoutException.class);
+        } catch (ApplicationTimeoutException e) {
+            // Then
+            assertThat(task.getOutputTailSize()).isEqualTo(10);
+            assertThat(e.getMessage()).endsWith("ms, last output:\nRetrying\n");
+            assertThat(e.getCause()).isSameAs(timeout);
+        }
+    }
+
+    @Test
+    public void shouldNotKeepOutputWhenOutputTailIsDisabled() {
+        // Given
+        OutputStream standardOutput = new ByteArrayOutputStream();
+        task.setStandardOutput(standardOutput);
+        task.setOutputTailSize(0);
+
+        // When
+        task.exec();
+
+        // Then
+        ArgumentCaptor<OutputStream> outputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setStandardOutput(outputCaptor.capture());
+        assertThat(((FanOutOutputStream) outputCaptor.getValue()).getSinks()).containsExactly(standardOutput);
+    }
+
+    @Test
+    public void shouldSetOutputOverflowPolicyStringRegardlessOfDefaultLocale() {
+        // Given
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        try {
+            // When
+            task.setOutputOverflowPolicy("drop_oldest");
+
+            // Then
+            assertThat(task.getOutputOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_OLDEST);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void shouldWriteOutputOnDedicatedThreadWhenAsyncOutputIsSet() throws Exception {
+        // Given
+        ByteArrayOutputStream standardOutput = new ByteArrayOutputStream();
+        task.setStandardOutput(standardOutput);
+        task.setAsyncOutput(true);
+        task.setOutputOverflowPolicy("drop_oldest");
+        task.exec();
+        writeToStandardOutput("started\n");
+
+        // When
+        task.processFinished();
+
+        // Then
+        assertThat(task.isAsyncOutput()).isTrue();
+        assertThat(task.getOutputOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_OLDEST);
+        ArgumentCaptor<OutputStream> outputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setStandardOutput(outputCaptor.capture());
+        assertThat(((FanOutOutputStream) outputCaptor.getValue()).getSinks().get(0)).isInstanceOf(AsyncOutputStream.class);
+        assertThat(standardOutput.toString()).isEqualTo("started\n");
+    }
+
+    @Test
+    public void shouldDetachSinksAttachedUntilReadyOnceApplicationIsReady() throws Exception {
+        // Given
+        ByteArrayOutputStream standardOutput = new ByteArrayOutputStream();
+        OutputStream standardOutputSink = mock(OutputStream.class);
+        OutputStream errorOutputSink = mock(OutputStream.class);
+        task.setStandardOutput(standardOutput);
+        task.attachUntilReady(standardOutputSink, errorOutputSink);
+        task.setSpawnOnly(true);
+        task.exec();
+        writeToStandardOutput("starting\n");
+
+        // When
+        task.awaitApplication();
+        writeToStandardOutput("ready\n");
+
+        // Then
+        verify(standardOutputSink).write("starting\n".getBytes("UTF-8"));
+        verifyNoMoreInteractions(standardOutputSink);
+        assertThat(standardOutput.toString()).isEqualTo("starting\nready\n");
+        ArgumentCaptor<OutputStream> outputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setErrorOutput(outputCaptor.capture());
+        assertThat(((FanOutOutputStream) outputCaptor.getValue()).getSinks()).doesNotContain(errorOutputSink);
+    }
+
+    @Test
+    public void shouldRecordStartupMetricsAndWriteReportWhenApplicationIsReady() throws Exception {
+        // Given
+        task.setStartupReport(true);
+        task.ready = true;
+        task.exec();
+        ArgumentCaptor<Callable> callableArgumentCaptor = ArgumentCaptor.forClass(Callable.class);
+        verify(poller).awaitAtMost(anyInt(), any(TimeUnit.class), callableArgumentCaptor.capture());
+
+        // When
+        callableArgumentCaptor.getValue().call();
+
+        // Then
+        StartupMetrics metrics = task.getStartupMetrics();
+        assertThat(metrics.getSpawnLatency()).isNotNull();
+        assertThat(metrics.getTimeToReady()).isGreaterThanOrEqualTo(metrics.getSpawnLatency());
+        assertThat(metrics.getProbeAttempts()).isEqualTo(1);
+        assertThat(readStartupReport()).startsWith("{\"task\":\"testTask\"").contains("\"ready\":true")
+                .contains("\"deferred\":false");
+    }
+
+    @Test
+    public void shouldMarkStartupMetricsOfDeferredWait() throws Exception {
+        // Given
+        task.setStartupReport(true);
+        task.setSpawnOnly(true);
+        task.exec();
+
+        // When
+        task.awaitApplication();
+
+        // Then
+        assertThat(task.getStartupMetrics().isDeferred()).isTrue();
+        assertThat(readStartupReport()).contains("\"deferred\":true");
+    }
+
+    @Test
+    public void shouldNotWriteStartupReportByDefault() {
+        // Given
+        File report = new File(task.getProject().getBuildDir(), "execasync/testTask-startup.json");
+        report.delete();
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.isStartupReport()).isFalse();
+        assertThat(report.exists()).isFalse();
+    }
+
+    @Test
+    public void shouldWriteStartupReportWhenApplicationHasNotBecomeReady() throws Exception {
+        // Given
+        task.setStartupReport(true);
+        willThrow(new ApplicationTimeoutException())
+                .given(poller).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
+
+        try {
+            // When
+            task.exec();
+            failBecauseExceptionWasNotThrown(ApplicationTimeoutException.class);
+        } catch (ApplicationTimeoutException e) {
+            // Then
+            assertThat(task.getStartupMetrics().getTimeToReady()).isNull();
+            assertThat(readStartupReport()).contains("\"ready\":false,").contains("\"timeToReady\":null");
+        }
+    }
+
+    @Test
+    public void shouldRecordStartupInHistoryWhenApplicationIsReady() throws Exception {
+        // Given
+        StartupHistory history = new StartupHistory(getStartupHistoryFile());
+        for (int i = 0; i < 10; i++) {
+            history.append(60000);
+        }
+        task.setStartupHistory(true);
+        task.setFailOnStartupRegression(true);
+
+        // When
+        task.exec();
+
+        // Then
+        List<Double> times = history.read();
+        assertThat(times).hasSize(11);
+        assertThat(times.get(10)).isLessThan(60000.0);
+    }
+
+    @Test
+    public void shouldNotRecordStartupInHistoryByDefault() {
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.isStartupHistory()).isFalse();
+        assertThat(getStartupHistoryFile().exists()).isFalse();
+    }
+
+    @Test
+    public void shouldNotRecordStartupInHistoryWhenWaitIsDeferred() {
+        // Given
+        StartupHistory history = new StartupHistory(getStartupHistoryFile());
+        for (int i = 0; i < 10; i++) {
+            history.append(0);
+        }
+        task.setStartupHistory(true);
+        task.setFailOnStartupRegression(true);
+        task.setSpawnOnly(true);
+        task.exec();
+
+        // When
+        task.awaitApplication();
+
+        // Then
+        assertThat(history.read()).hasSize(10);
+    }
+
+    @Test
+    public void shouldFailWhenStartupIsSlowerThanPercentileOfHistory() throws Exception {
+        // Given
+        StartupHistory history = new StartupHistory(getStartupHistoryFile());
+        for (int i = 0; i < 10; i++) {
+            history.append(0);
+        }
+        task.setStartupHistory(true);
+        task.setFailOnStartupRegression(true);
+
+        try {
+            // When
+            task.exec();
+            failBecauseExceptionWasNotThrown(StartupRegressionException.class);
+        } catch (StartupRegressionException e) {
+            // Then
+            assertThat(e.getMessage()).contains("above percentile 95 of the last 10 startups (0 ms)");
+            assertThat(history.read()).hasSize(11);
+        }
+    }
+
     @Test
     public void shouldReturnFalseWhenApplicationIsNotReady() throws Exception {
         // Given
@@ -143,6 +534,117 @@ public class AbstractPollingExecAsyncTaskTest extends AbstractTaskTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    public void shouldWakeUpPollerWhenProcessHasFinished() {
+        // Given
+        task.exec();
+        ArgumentCaptor<ExecHandleListener> listenerCaptor = ArgumentCaptor.forClass(ExecHandleListener.class);
+        verify(execHandle).addListener(listenerCaptor.capture());
+
+        // When
+        listenerCaptor.getValue().executionFinished(execHandle, mock(ExecResult.class));
+
+        // Then
+        verify(poller).wakeUp();
+    }
+
+    @Test
+    public void shouldReuseRegisteredApplicationWhichIsStillRunning() {
+        // Given
+        task.setReuse(true);
+        given(instanceRegistry.read("testTask")).willReturn(new RegisteredInstance(42, 1000, fingerprintOf(task)));
+        given(procFileSystem.isAlive(42, 1000)).willReturn(true);
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.isReuse()).isTrue();
+        assertThat(task.isRunning()).isTrue();
+        verify(execHandleBuilder, never()).build();
+        verify(poller, never()).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
+    }
+
+    @Test
+    public void shouldStartApplicationWhenRegisteredOneIsNoLongerRunning() {
+        // Given
+        task.setReuse(true);
+        given(instanceRegistry.read("testTask")).willReturn(new RegisteredInstance(42, 1000, fingerprintOf(task)));
+        given(procFileSystem.isAlive(42, 1000)).willReturn(false);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(instanceRegistry).delete("testTask");
+        verify(execHandle).start();
+    }
+
+    @Test
+    public void shouldNotReuseRegisteredApplicationWhenItIsDisabled() {
+        // When
+        task.exec();
+
+        // Then
+        verify(instanceRegistry, never()).read(anyString());
+        verify(execHandle).start();
+    }
+
+    @Test
+    public void shouldNotReuseApplicationWhenPlatformIsNotSupported() {
+        // Given
+        task.setReuse(true);
+        given(procFileSystem.isSupported()).willReturn(false);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(instanceRegistry, never()).read(anyString());
+        verify(execHandle).start();
+    }
+
+    @Test
+    public void shouldRegisterApplicationOnceItIsReady() {
+        // Given
+        List<String> commandLine = Arrays.asList("/usr/bin/app", "--port", "8080");
+        task.setReuse(true);
+        given(execHandleBuilder.getCommandLine()).willReturn(commandLine);
+        given(procFileSystem.getCurrentPid()).willReturn(1);
+        given(procFileSystem.getChildren(1)).willReturn(Collections.singletonList(42));
+        given(procFileSystem.getCommandLine(42)).willReturn(Arrays.asList("app", "--port", "8080"));
+        given(procFileSystem.getStartTime(42)).willReturn(1000L);
+
+        // When
+        task.exec();
+
+        // Then
+        ArgumentCaptor<RegisteredInstance> instanceCaptor = ArgumentCaptor.forClass(RegisteredInstance.class);
+        verify(instanceRegistry).write(eq("testTask"), instanceCaptor.capture());
+        assertThat(instanceCaptor.getValue().getPid()).isEqualTo(42);
+        assertThat(instanceCaptor.getValue().getStartTime()).isEqualTo(1000L);
+        assertThat(instanceCaptor.getValue().getFingerprint()).isEqualTo(fingerprintOf(task));
+    }
+
+    private File getStartupHistoryFile() {
+        return new File(task.getProject().getRootDir(), ".gradle/execasync/testTask-startup-history.txt");
+    }
+
+    private String readStartupReport() throws IOException {
+        File report = new File(task.getProject().getBuildDir(), "execasync/testTask-startup.json");
+        return new String(Files.readAllBytes(report.toPath()), "UTF-8");
+    }
+
+    private void writeToStandardOutput(String output) throws Exception {
+        ArgumentCaptor<OutputStream> outputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setStandardOutput(outputCaptor.capture());
+        outputCaptor.getValue().write(output.getBytes("UTF-8"));
+    }
+
+    private static String fingerprintOf(AbstractExecAsyncTask<?> task) {
+        return Fingerprint.of(task.getCommandLine(), task.getEnvironment(), task.getWorkingDir());
+    }
+
     public static class TestableAbstractPollingExecAsyncTask extends AbstractPollingExecAsyncTask<TestableAbstractPollingExecAsyncTask> {
 
         private boolean ready = false;
@@ -0,0 +1,84 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AwaitApplicationReadyTest extends AbstractTaskTest {
+
+    private AwaitApplicationReady task;
+
+    @Before
+    public void setUp() {
+        task = createTask(AwaitApplicationReady.class);
+    }
+
+    @Test
+    public void shouldAddApplicationsAndDependOnThem() {
+        // Given
+        StartWebApplicationAsync web = mock(StartWebApplicationAsync.class);
+        StartConsoleApplicationAsync console = mock(StartConsoleApplicationAsync.class);
+
+        // When
+        task.applications(web, console);
+
+        // Then
+        assertThat(task.getApplications()).containsExactly(web, console);
+        assertThat(task.getDependsOn()).contains(web, console);
+    }
+
+    @Test
+    public void shouldAwaitStartedApplications() {
+        // Given
+        StartWebApplicationAsync web = mock(StartWebApplicationAsync.class);
+        StartConsoleApplicationAsync console = mock(StartConsoleApplicationAsync.class);
+        given(web.isStarted()).willReturn(true);
+        given(console.isStarted()).willReturn(true);
+        task.applications(web, console);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(web).awaitApplication();
+        verify(console).awaitApplication();
+    }
+
+    @Test
+    public void shouldNotAwaitApplicationWhichHasNotBeenStarted() {
+        // Given
+        StartWebApplicationAsync web = mock(StartWebApplicationAsync.class);
+        given(web.isStarted()).willReturn(false);
+        task.applications(web);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(web, never()).awaitApplication();
+    }
+}
@@ -16,7 +16,11 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.process.ProcFileSystem;
+import com.github.swierkosz.execasync.process.ProcessTree;
 import com.google.common.collect.ImmutableMap;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
 import org.gradle.process.ExecResult;
 import org.gradle.process.ProcessForkOptions;
 import org.gradle.process.internal.ExecHandle;
@@ -32,13 +36,17 @@ import org.mockito.runners.MockitoJUnitRunner;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.gradle.process.internal.ExecHandleState.*;
 import static org.mockito.BDDMockito.given;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -491,6 +499,97 @@ public class StartApplicationAsyncTest extends AbstractTaskTest {
         verify(execHandle, never()).abort();
     }
 
+    @Test
+    public void shouldNotTerminateProcessTreeByDefault() {
+        // When
+        boolean result = task.isTerminateProcessTree();
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldNotStartProcessInNewSessionByDefault() {
+        // Given
+        ExecHandle execHandle = mock(ExecHandle.class);
+        given(execHandleBuilder.build()).willReturn(execHandle);
+        given(execHandleBuilder.getCommandLine()).willReturn(Arrays.asList("/opt/app/bin/app", "--port=1234"));
+
+        // When
+        task.exec();
+
+        // Then
+        verify(execHandleBuilder, never()).setCommandLine(any(Iterable.class));
+    }
+
+    @Test
+    public void shouldTerminateProcessTreeWhenProcessStarted() {
+        // Given
+        ExecHandle execHandle = mock(ExecHandle.class);
+        ProcessTree processTree = givenProcessTree(execHandle);
+        task.setGracePeriod(3);
+        task.setTerminationTimeout(7);
+        task.exec();
+
+        // When
+        task.terminate();
+
+        // Then
+        assertThat(task.getGracePeriod()).isEqualTo(3);
+        assertThat(task.getTerminationTimeout()).isEqualTo(7);
+        verify(processTree).terminate(eq(42), anyLong(), anyBoolean(), eq(3L), eq(7L), eq(SECONDS));
+        verify(execHandle).waitForFinish();
+        verify(execHandle, never()).abort();
+    }
+
+    @Test
+    public void shouldTerminateOnlyProcessWhenProcessTreeIsNotTerminated() {
+        // Given
+        ExecHandle execHandle = mock(ExecHandle.class);
+        ProcessTree processTree = givenProcessTree(execHandle);
+        task.setTerminateProcessTree(false);
+        task.exec();
+
+        // When
+        task.terminate();
+
+        // Then
+        assertThat(task.isTerminateProcessTree()).isFalse();
+        verify(execHandle).abort();
+        verifyZeroInteractions(processTree);
+    }
+
+    @Test
+    public void shouldStartProcessInNewSession() {
+        // Given
+        assumeTrue(new File("/usr/bin/setsid").canExecute());
+        givenProcessTree(mock(ExecHandle.class));
+
+        // When
+        task.exec();
+
+        // Then
+        verify(execHandleBuilder).setCommandLine(Arrays.asList("/usr/bin/setsid", "/opt/app/bin/app", "--port=1234"));
+        verify(execHandleBuilder).setCommandLine(Arrays.asList("/opt/app/bin/app", "--port=1234"));
+    }
+
+    @Test
+    public void shouldTerminateSessionLeaderIdentifiedByStartTimeRecordedWhenProcessStarted() {
+        // Given
+        assumeTrue(new File("/usr/bin/setsid").canExecute());
+        ExecHandle execHandle = mock(ExecHandle.class);
+        ProcessTree processTree = givenProcessTree(execHandle);
+        task.exec();
+        given(task.getProcFileSystem().getStartTime(42)).willReturn(2000L);
+        given(execHandle.getState()).willReturn(SUCCEEDED);
+
+        // When
+        task.terminate();
+
+        // Then
+        verify(processTree).terminate(eq(42), eq(1000L), eq(true), anyLong(), anyLong(), eq(SECONDS));
+    }
+
     @Test
     public void shouldReturnFalseWhenProcessHasNotBeenExecuted() {
         // When
@@ -569,4 +668,67 @@ public class StartApplicationAsyncTest extends AbstractTaskTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldDeclareStartsAfterRelation() {
+        // Given
+        StartApplicationAsync prerequisite = createTask(StartApplicationAsync.class);
+
+        // When
+        AbstractExecAsyncTask result = task.startsAfter(prerequisite);
+
+        // Then
+        assertThat(result).isEqualTo(task);
+        assertThat(task.getStartsAfter()).containsExactly(prerequisite);
+        assertThat(task.getDependsOn()).contains(prerequisite);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenStartsAfterRelationFormsCycle() {
+        // Given
+        StartApplicationAsync first = createTask(StartApplicationAsync.class);
+        StartApplicationAsync second = createTask(StartApplicationAsync.class);
+        first.startsAfter(second);
+        second.startsAfter(task);
+
+        // When
+        task.startsAfter(first);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenTaskStartsAfterItself() {
+        // When
+        task.startsAfter(task);
+    }
+
+    @Test
+    public void shouldMakeTaskAwaitApplicationBeforeItsActions() {
+        // Given
+        Task testTask = mock(Task.class);
+
+        // When
+        AbstractExecAsyncTask result = task.readyBefore(testTask);
+
+        // Then
+        assertThat(result).isEqualTo(task);
+        verify(testTask).dependsOn(task);
+        verify(testTask).doFirst(any(Action.class));
+    }
+
+    private ProcessTree givenProcessTree(ExecHandle execHandle) {
+        ProcFileSystem procFileSystem = mock(ProcFileSystem.class);
+        ProcessTree processTree = mock(ProcessTree.class);
+        List<String> commandLine = Arrays.asList("/opt/app/bin/app", "--port=1234");
+        given(execHandleBuilder.build()).willReturn(execHandle);
+        given(execHandleBuilder.getCommandLine()).willReturn(commandLine);
+        given(execHandle.getState()).willReturn(STARTED);
+        given(procFileSystem.isSupported()).willReturn(true);
+        given(procFileSystem.getCurrentPid()).willReturn(1);
+        given(procFileSystem.getChildren(1)).willReturn(Collections.singletonList(42));
+        given(procFileSystem.getCommandLine(42)).willReturn(Arrays.asList("app", "--port=1234"));
+        given(procFileSystem.getStartTime(42)).willReturn(1000L);
+        task.setProcFileSystem(procFileSystem);
+        task.setProcessTree(processTree);
+        task.setTerminateProcessTree(true);
+        return processTree;
+    }
+}
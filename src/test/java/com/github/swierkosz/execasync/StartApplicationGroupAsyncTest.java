@@ -0,0 +1,207 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.swierkosz.execasync.group.ApplicationGroupFailedException;
+import com.github.swierkosz.execasync.polling.ApplicationFailedException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StartApplicationGroupAsyncTest extends AbstractTaskTest {
+
+    private StartApplicationGroupAsync task;
+
+    @Before
+    public void setUp() {
+        task = createTask(StartApplicationGroupAsync.class);
+    }
+
+    @Test
+    public void shouldAddAndReturnMembers() {
+        // Given
+        StartWebApplicationAsync web = mock(StartWebApplicationAsync.class);
+        StartConsoleApplicationAsync console = mock(StartConsoleApplicationAsync.class);
+
+        // When
+        task.members(web, console);
+
+        // Then
+        assertThat(task.getMembers()).containsExactly(web, console);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenMembersAreMissing() {
+        // When
+        task.exec();
+    }
+
+    @Test
+    public void shouldStartAndAwaitAllMembersAtTheSameTime() {
+        // Given
+        final CountDownLatch allAwaiting = new CountDownLatch(2);
+        Answer<Void> awaitOthers = new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                allAwaiting.countDown();
+                if (!allAwaiting.await(10, SECONDS)) {
+                    throw new IllegalStateException("Members are not awaited at the same time");
+                }
+                return null;
+            }
+        };
+        StartWebApplicationAsync web = givenMember(StartWebApplicationAsync.class, "web");
+        StartConsoleApplicationAsync console = givenMember(StartConsoleApplicationAsync.class, "console");
+        willAnswer(awaitOthers).given(web).awaitApplication();
+        willAnswer(awaitOthers).given(console).awaitApplication();
+        task.members(web, console);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(web).launchApplication();
+        verify(console).launchApplication();
+        verify(web, never()).terminate();
+        verify(console, never()).terminate();
+    }
+
+    @Test
+    public void shouldNotAwaitMemberWhichHasNotBeenStarted() {
+        // Given
+        StartWebApplicationAsync web = givenMember(StartWebApplicationAsync.class, "web");
+        given(web.launchApplication()).willReturn(false);
+        task.members(web);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(web, never()).awaitApplication();
+    }
+
+    @Test
+    public void shouldTerminateAllMembersAndReportTimingsWhenMemberFails() {
+        // Given
+        StartWebApplicationAsync web = givenMember(StartWebApplicationAsync.class, "web");
+        StartConsoleApplicationAsync console = givenMember(StartConsoleApplicationAsync.class, "console");
+        StartApplicationAsync plain = givenMember(StartApplicationAsync.class, "plain");
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(SECONDS.toMillis(60));
+                return null;
+            }
+        }).given(web).awaitApplication();
+        willThrow(new ApplicationFailedException("Port already in use")).given(console).awaitApplication();
+        given(web.isRunning()).willReturn(true);
+        given(console.isRunning()).willReturn(true);
+        task.members(web, console, plain);
+
+        // When
+        try {
+            task.exec();
+            failBecauseExceptionWasNotThrown(ApplicationGroupFailedException.class);
+        } catch (ApplicationGroupFailedException e) {
+            // Then
+            assertThat(e.getMessage()).contains("console: failed after");
+            assertThat(e.getMessage()).contains("Port already in use");
+            assertThat(e.getMessage()).contains("web: not ready after");
+            assertThat(e.getCause()).isInstanceOf(ApplicationFailedException.class);
+        }
+        verify(web).terminate();
+        verify(console).terminate();
+        verify(plain, never()).terminate();
+    }
+
+    @Test
+    public void shouldStartMemberOnlyAfterItsPrerequisitesAreReady() {
+        // Given
+        final StartTcpApplicationAsync database = givenMember(StartTcpApplicationAsync.class, "database");
+        final StartWebApplicationAsync service = givenMember(StartWebApplicationAsync.class, "service");
+        given(service.getStartsAfter()).willReturn(Collections.<AbstractExecAsyncTask<?>>singletonList(database));
+        final AtomicBoolean databaseReady = new AtomicBoolean();
+        final AtomicBoolean serviceStartedAfterDatabase = new AtomicBoolean();
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(100);
+                databaseReady.set(true);
+                return null;
+            }
+        }).given(database).awaitApplication();
+        willAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                serviceStartedAfterDatabase.set(databaseReady.get());
+                return true;
+            }
+        }).given(service).launchApplication();
+        task.members(service, database);
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(serviceStartedAfterDatabase.get()).isTrue();
+    }
+
+    @Test
+    public void shouldReportMembersWhichHaveNotBeenStarted() {
+        // Given
+        StartTcpApplicationAsync database = givenMember(StartTcpApplicationAsync.class, "database");
+        StartWebApplicationAsync service = givenMember(StartWebApplicationAsync.class, "service");
+        given(service.getStartsAfter()).willReturn(Collections.<AbstractExecAsyncTask<?>>singletonList(database));
+        willThrow(new ApplicationFailedException("FATAL")).given(database).awaitApplication();
+        task.members(database, service);
+
+        // When
+        try {
+            task.exec();
+            failBecauseExceptionWasNotThrown(ApplicationGroupFailedException.class);
+        } catch (ApplicationGroupFailedException e) {
+            // Then
+            assertThat(e.getMessage()).contains("service: not started");
+        }
+        verify(service, never()).launchApplication();
+    }
+
+    private static <T extends AbstractExecAsyncTask<?>> T givenMember(Class<T> type, String name) {
+        T member = mock(type);
+        given(member.getName()).willReturn(name);
+        given(member.launchApplication()).willReturn(true);
+        return member;
+    }
+}
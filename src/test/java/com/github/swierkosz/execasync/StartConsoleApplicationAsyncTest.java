@@ -16,26 +16,49 @@ package com.github.swierkosz.execasync;
  * limitations under the License.
  */
 
+import com.github.swierkosz.execasync.console.AsyncFileOutputStream;
+import com.github.swierkosz.execasync.console.FanOutOutputStream;
+import com.github.swierkosz.execasync.console.MatchMode;
 import com.github.swierkosz.execasync.console.PatternMatchingOutputStream;
+import com.github.swierkosz.execasync.console.PatternSet;
 import com.github.swierkosz.execasync.console.StreamFactory;
-import com.github.swierkosz.execasync.console.TeeOutputStream;
+import com.github.swierkosz.execasync.polling.ApplicationFailedException;
 import com.github.swierkosz.execasync.polling.Poller;
+import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.ExecHandleBuilder;
+import org.gradle.process.internal.ExecHandleListener;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.gradle.process.internal.ExecHandleState.STARTED;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class StartConsoleApplicationAsyncTest extends AbstractTaskTest {
@@ -74,6 +97,367 @@ public class StartConsoleApplicationAsyncTest extends AbstractTaskTest {
         assertThat(result.toString()).isEqualTo(patternString);
     }
 
+    @Test
+    public void shouldSetPatternsAndReturnPatterns() {
+        // Given
+        Pattern compiledPattern = Pattern.compile("compiled");
+
+        // When
+        task.setPatterns(Arrays.asList("first", compiledPattern));
+        task.patterns("third");
+        List<Pattern> result = task.getPatterns();
+
+        // Then
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0).toString()).isEqualTo("first");
+        assertThat(result.get(1)).isEqualTo(compiledPattern);
+        assertThat(result.get(2).toString()).isEqualTo("third");
+        assertThat(task.getPattern().toString()).isEqualTo("first");
+    }
+
+    @Test
+    public void shouldReplacePatternsWhenSettingPattern() {
+        // Given
+        task.patterns("first", "second");
+
+        // When
+        task.setPattern("single");
+        List<Pattern> result = task.getPatterns();
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).toString()).isEqualTo("single");
+    }
+
+    @Test
+    public void shouldSetMatchModeStringRegardlessOfDefaultLocale() {
+        // Given
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        try {
+            // When
+            task.setMatchMode("in_order");
+
+            // Then
+            assertThat(task.getMatchMode()).isEqualTo(MatchMode.IN_ORDER);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void shouldSetMatchModeStringAndReturnMatchMode() {
+        // When
+        task.setMatchMode("all_of");
+        MatchMode result = task.getMatchMode();
+
+        // Then
+        assertThat(result).isEqualTo(MatchMode.ALL_OF);
+    }
+
+    @Test
+    public void shouldReturnDefaultMatchMode() {
+        // When
+        MatchMode result = task.getMatchMode();
+
+        // Then
+        assertThat(result).isEqualTo(MatchMode.ANY_OF);
+    }
+
+    @Test
+    public void shouldShareOnePatternSetBetweenOutputs() {
+        // Given
+        task.patterns("first", "second");
+        task.setMatchMode(MatchMode.IN_ORDER);
+        Charset charset = Charset.forName("UTF-8");
+        task.setCharset(charset);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), eq(charset), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+
+        // When
+        task.exec();
+
+        // Then
+        ArgumentCaptor<PatternSet> patternSetCaptor = ArgumentCaptor.forClass(PatternSet.class);
+        verify(streamFactory, times(2)).createPatternMatchingOutputStream(patternSetCaptor.capture(), eq(charset), anyInt());
+        List<PatternSet> patternSets = patternSetCaptor.getAllValues();
+        assertThat(patternSets.get(0)).isSameAs(patternSets.get(1));
+        assertThat(patternSets.get(0).size()).isEqualTo(2);
+        assertThat(patternSets.get(0).getMode()).isEqualTo(MatchMode.IN_ORDER);
+    }
+
+    @Test
+    public void shouldSetFailurePatternsAndReturnFailurePatterns() {
+        // When
+        task.setFailurePattern("first");
+        task.failurePatterns("second", Pattern.compile("third"));
+        List<Pattern> result = task.getFailurePatterns();
+
+        // Then
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0).toString()).isEqualTo("first");
+        assertThat(result.get(1).toString()).isEqualTo("second");
+        assertThat(result.get(2).toString()).isEqualTo("third");
+    }
+
+    @Test
+    public void shouldTerminateOnFailureByDefault() {
+        // When
+        boolean result = task.isTerminateOnFailure();
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldPassFailurePatternsToPatternSet() {
+        // Given
+        task.setPattern("ready");
+        task.setFailurePattern("FAILED TO START");
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+
+        // When
+        task.exec();
+
+        // Then
+        ArgumentCaptor<PatternSet> patternSetCaptor = ArgumentCaptor.forClass(PatternSet.class);
+        verify(streamFactory, times(2)).createPatternMatchingOutputStream(patternSetCaptor.capture(), any(Charset.class), anyInt());
+        PatternSet patternSet = patternSetCaptor.getValue();
+        assertThat(patternSet.failurePatternsSize()).isEqualTo(1);
+        assertThat(patternSet.getFailurePattern(0).toString()).isEqualTo("FAILED TO START");
+    }
+
+    @Test
+    public void shouldFailAndTerminateApplicationWhenFailurePatternHasMatched() {
+        // Given
+        ExecHandle execHandle = givenStartedApplicationWithFailedLine("APPLICATION FAILED TO START");
+
+        try {
+            // When
+            task.isApplicationReady();
+            failBecauseExceptionWasNotThrown(ApplicationFailedException.class);
+        } catch (ApplicationFailedException e) {
+            // Then
+            assertThat(e).hasMessageContaining("APPLICATION FAILED TO START");
+        }
+        verify(execHandle).abort();
+    }
+
+    @Test
+    public void shouldDescribeFailedApplicationWithLastOutput() throws IOException {
+        // Given
+        task.setStandardOutput(new ByteArrayOutputStream());
+        givenStartedApplicationWithFailedLine("APPLICATION FAILED TO START");
+        ArgumentCaptor<OutputStream> standardOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setStandardOutput(standardOutputCaptor.capture());
+        standardOutputCaptor.getValue().write("Port 8080 is already in use\n".getBytes("UTF-8"));
+
+        try {
+            // When
+            task.isApplicationReady();
+            failBecauseExceptionWasNotThrown(ApplicationFailedException.class);
+        } catch (ApplicationFailedException e) {
+            // Then
+            assertThat(e.getMessage()).startsWith("The application has failed to start: APPLICATION FAILED TO START after ");
+            assertThat(e.getMessage()).endsWith("ms, last output:\nPort 8080 is already in use\n");
+        }
+    }
+
+    @Test
+    public void shouldFailWithoutTerminatingApplicationWhenTerminateOnFailureIsNotSet() {
+        // Given
+        task.setTerminateOnFailure(false);
+        ExecHandle execHandle = givenStartedApplicationWithFailedLine("APPLICATION FAILED TO START");
+
+        try {
+            // When
+            task.isApplicationReady();
+            failBecauseExceptionWasNotThrown(ApplicationFailedException.class);
+        } catch (ApplicationFailedException e) {
+            // Then
+            assertThat(e).hasMessageContaining("APPLICATION FAILED TO START");
+        }
+        verify(execHandle, never()).abort();
+    }
+
+    @Test
+    public void shouldSetAndReturnLiteral() {
+        // When
+        task.setLiteral(true);
+        boolean result = task.isLiteral();
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldCompilePatternsAsLiteralsWhenLiteralIsSet() {
+        // Given
+        task.patterns("Started (main)");
+        task.setLiteral(true);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+
+        // When
+        task.exec();
+
+        // Then
+        ArgumentCaptor<PatternSet> patternSetCaptor = ArgumentCaptor.forClass(PatternSet.class);
+        verify(streamFactory, times(2)).createPatternMatchingOutputStream(patternSetCaptor.capture(), any(Charset.class), anyInt());
+        Pattern pattern = patternSetCaptor.getValue().getPattern(0);
+        assertThat(pattern.pattern()).isEqualTo("Started (main)");
+        assertThat(pattern.flags()).isEqualTo(Pattern.LITERAL);
+    }
+
+    @Test
+    public void shouldWakeUpPollerAsSoonAsPatternsHaveMatched() {
+        // Given
+        task.setPattern("ready");
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+        task.exec();
+        ArgumentCaptor<PatternSet> patternSetCaptor = ArgumentCaptor.forClass(PatternSet.class);
+        verify(streamFactory, times(2)).createPatternMatchingOutputStream(patternSetCaptor.capture(), any(Charset.class), anyInt());
+
+        // When
+        patternSetCaptor.getValue().markMatched(0);
+
+        // Then
+        verify(poller).wakeUp();
+    }
+
+    @Test
+    public void shouldSetMaxLineLengthAndPassItToMatchers() {
+        // Given
+        task.setPattern("ready");
+        task.setMaxLineLength(1024);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.getMaxLineLength()).isEqualTo(1024);
+        verify(streamFactory, times(2)).createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), eq(1024));
+    }
+
+    @Test
+    public void shouldReturnDefaultMaxLineLength() {
+        // When
+        int result = task.getMaxLineLength();
+
+        // Then
+        assertThat(result).isEqualTo(65536);
+    }
+
+    @Test
+    public void shouldWriteOutputToLogFileInsteadOfConsole() throws IOException {
+        // Given
+        File logFile = task.getProject().file("build/app.log");
+        AsyncFileOutputStream logFileOutput = mock(AsyncFileOutputStream.class);
+        PatternMatchingOutputStream errorOutputMatcher = mock(PatternMatchingOutputStream.class);
+        PatternMatchingOutputStream standardOutputMatcher = mock(PatternMatchingOutputStream.class);
+        task.setPattern("ready");
+        task.setLogFile("build/app.log");
+        given(streamFactory.createAsyncFileOutputStream(logFile)).willReturn(logFileOutput);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(errorOutputMatcher, standardOutputMatcher);
+
+        // When
+        task.exec();
+
+        // Then
+        assertThat(task.getLogFile()).isEqualTo(logFile);
+        ArgumentCaptor<OutputStream> errorOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        ArgumentCaptor<OutputStream> standardOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        verify(execHandleBuilder).setErrorOutput(errorOutputCaptor.capture());
+        verify(execHandleBuilder).setStandardOutput(standardOutputCaptor.capture());
+        assertThat(((FanOutOutputStream) errorOutputCaptor.getValue()).getSinks()).hasSize(1);
+        assertThat(((FanOutOutputStream) standardOutputCaptor.getValue()).getSinks()).hasSize(1);
+        byte[] output = "output".getBytes("UTF-8");
+        standardOutputCaptor.getValue().write(output, 0, output.length);
+        errorOutputCaptor.getValue().write(output, 0, output.length);
+        verify(logFileOutput, times(2)).write(output, 0, output.length);
+    }
+
+    @Test
+    public void shouldWriteBothOutputsToLogFileWhenTheyEndAtDifferentTimes() throws IOException {
+        // Given
+        File directory = Files.createTempDirectory("console").toFile();
+        directory.deleteOnExit();
+        File logFile = new File(directory, "app.log");
+        logFile.deleteOnExit();
+        ExecHandle execHandle = mock(ExecHandle.class);
+        given(execHandleBuilder.build()).willReturn(execHandle);
+        task.setPattern("ready");
+        task.setLogFile(logFile);
+        given(streamFactory.createAsyncFileOutputStream(logFile)).willReturn(new AsyncFileOutputStream(logFile));
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+        task.exec();
+        ArgumentCaptor<OutputStream> errorOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        ArgumentCaptor<OutputStream> standardOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        ArgumentCaptor<ExecHandleListener> listenerCaptor = ArgumentCaptor.forClass(ExecHandleListener.class);
+        verify(execHandleBuilder).setErrorOutput(errorOutputCaptor.capture());
+        verify(execHandleBuilder).setStandardOutput(standardOutputCaptor.capture());
+        verify(execHandle).addListener(listenerCaptor.capture());
+
+        // When
+        standardOutputCaptor.getValue().write("started\n".getBytes("UTF-8"));
+        standardOutputCaptor.getValue().close();
+        errorOutputCaptor.getValue().write("Exception in thread \"main\"\n".getBytes("UTF-8"));
+        errorOutputCaptor.getValue().close();
+        listenerCaptor.getValue().executionFinished(execHandle, mock(ExecResult.class));
+
+        // Then
+        String log = new String(Files.readAllBytes(logFile.toPath()), "UTF-8");
+        assertThat(log).isEqualTo("started\nException in thread \"main\"\n");
+    }
+
+    @Test
+    public void shouldCloseLogFileWhenApplicationHasFinished() throws IOException {
+        // Given
+        ExecHandle execHandle = mock(ExecHandle.class);
+        AsyncFileOutputStream logFileOutput = mock(AsyncFileOutputStream.class);
+        given(execHandleBuilder.build()).willReturn(execHandle);
+        task.setPattern("ready");
+        task.setLogFile("build/app.log");
+        given(streamFactory.createAsyncFileOutputStream(any(File.class))).willReturn(logFileOutput);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(mock(PatternMatchingOutputStream.class));
+        task.exec();
+        ArgumentCaptor<ExecHandleListener> listenerCaptor = ArgumentCaptor.forClass(ExecHandleListener.class);
+        verify(execHandle).addListener(listenerCaptor.capture());
+
+        // When
+        listenerCaptor.getValue().executionFinished(execHandle, mock(ExecResult.class));
+
+        // Then
+        verify(logFileOutput).close();
+    }
+
+    @Test
+    public void shouldSetCharsetStringAndReturnCharset() {
+        // When
+        task.setCharset("ISO-8859-2");
+        Charset result = task.getCharset();
+
+        // Then
+        assertThat(result).isEqualTo(Charset.forName("ISO-8859-2"));
+    }
+
+    @Test
+    public void shouldReturnDefaultCharset() {
+        // When
+        Charset result = task.getCharset();
+
+        // Then
+        assertThat(result).isEqualTo(Charset.defaultCharset());
+    }
+
     @Test
     public void shouldSetAndReturnStandardOutput() {
         // Given
@@ -101,45 +485,45 @@ public class StartConsoleApplicationAsyncTest extends AbstractTaskTest {
     }
 
     @Test
-    public void shouldStartProcessIfApplicationIsNotRunningAndShouldWait() {
+    public void shouldStartProcessIfApplicationIsNotRunningAndShouldWait() throws IOException {
         // Given
         Pattern pattern = Pattern.compile("1234");
         task.setPattern(pattern);
+        Charset charset = Charset.forName("windows-1250");
+        task.setCharset(charset);
 
         PatternMatchingOutputStream errorOutputMatcher = mock(PatternMatchingOutputStream.class);
         PatternMatchingOutputStream standardOutputMatcher = mock(PatternMatchingOutputStream.class);
-        given(streamFactory.createPatternMatchingOutputStream(pattern))
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), eq(charset), anyInt()))
                 .willReturn(errorOutputMatcher, standardOutputMatcher);
 
         OutputStream errorOutput = mock(OutputStream.class);
         task.setErrorOutput(errorOutput);
 
-        TeeOutputStream teeErrorOutput = mock(TeeOutputStream.class);
-        given(streamFactory.createTeeOutputStream(errorOutput, errorOutputMatcher))
-                .willReturn(teeErrorOutput);
-
         OutputStream standardOutput = mock(OutputStream.class);
         task.setStandardOutput(standardOutput);
-
-        TeeOutputStream teeStandardOutput = mock(TeeOutputStream.class);
-        given(streamFactory.createTeeOutputStream(standardOutput, standardOutputMatcher))
-                .willReturn(teeStandardOutput);
+        task.setSpawnOnly(true);
 
         // When
         task.exec();
 
         // Then
-        InOrder inOrder = inOrder(streamFactory, execHandleBuilder, teeErrorOutput, teeStandardOutput);
-        inOrder.verify(streamFactory).createTeeOutputStream(errorOutput, errorOutputMatcher);
-        inOrder.verify(execHandleBuilder).setErrorOutput(teeErrorOutput);
-        inOrder.verify(streamFactory).createTeeOutputStream(standardOutput, standardOutputMatcher);
-        inOrder.verify(execHandleBuilder).setStandardOutput(teeStandardOutput);
+        ArgumentCaptor<OutputStream> errorOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        ArgumentCaptor<OutputStream> standardOutputCaptor = ArgumentCaptor.forClass(OutputStream.class);
+        InOrder inOrder = inOrder(streamFactory, execHandleBuilder);
+        inOrder.verify(streamFactory, times(2)).createPatternMatchingOutputStream(any(PatternSet.class), eq(charset), anyInt());
+        inOrder.verify(execHandleBuilder).setStandardOutput(standardOutputCaptor.capture());
+        inOrder.verify(execHandleBuilder).setErrorOutput(errorOutputCaptor.capture());
         inOrder.verify(execHandleBuilder).build();
-        inOrder.verify(teeErrorOutput).detachRight();
-        inOrder.verify(teeStandardOutput).detachRight();
 
         assertThat(task.getErrorOutput()).isEqualTo(errorOutput);
         assertThat(task.getStandardOutput()).isEqualTo(standardOutput);
+        errorOutputCaptor.getValue().write(1);
+        standardOutputCaptor.getValue().write(2);
+        verify(errorOutput).write(1);
+        verify(errorOutputMatcher).write(1);
+        verify(standardOutput).write(2);
+        verify(standardOutputMatcher).write(2);
 
         // Given
         given(standardOutputMatcher.isMatched()).willReturn(true);
@@ -161,6 +545,13 @@ public class StartConsoleApplicationAsyncTest extends AbstractTaskTest {
 
         // Then
         assertThat(task.isApplicationReady()).isFalse();
+
+        // When
+        task.awaitApplication();
+
+        // Then
+        assertThat(((FanOutOutputStream) errorOutputCaptor.getValue()).getSinks()).containsExactly(errorOutput);
+        assertThat(((FanOutOutputStream) standardOutputCaptor.getValue()).getSinks()).containsExactly(standardOutput);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -168,4 +559,20 @@ public class StartConsoleApplicationAsyncTest extends AbstractTaskTest {
         // When
         task.exec();
     }
+
+    private ExecHandle givenStartedApplicationWithFailedLine(String failedLine) {
+        ExecHandle execHandle = mock(ExecHandle.class);
+        given(execHandleBuilder.build()).willReturn(execHandle);
+        given(execHandle.getState()).willReturn(STARTED);
+
+        task.setPattern("ready");
+        PatternMatchingOutputStream errorOutputMatcher = mock(PatternMatchingOutputStream.class);
+        PatternMatchingOutputStream standardOutputMatcher = mock(PatternMatchingOutputStream.class);
+        given(streamFactory.createPatternMatchingOutputStream(any(PatternSet.class), any(Charset.class), anyInt()))
+                .willReturn(errorOutputMatcher, standardOutputMatcher);
+        given(standardOutputMatcher.getFailedLine()).willReturn(failedLine);
+
+        task.exec();
+        return execHandle;
+    }
 }
\ No newline at end of file
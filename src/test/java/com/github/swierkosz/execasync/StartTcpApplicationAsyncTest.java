@@ -0,0 +1,185 @@
+package com.github.swierkosz.execasync;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.swierkosz.execasync.polling.Poller;
+import com.github.swierkosz.execasync.tcp.TcpApplicationChecker;
+import com.github.swierkosz.execasync.tcp.TcpApplicationIsAlreadyAvailableException;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.ExecHandleBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StartTcpApplicationAsyncTest extends AbstractTaskTest {
+
+    @Mock
+    private TcpApplicationChecker checker;
+
+    @Mock
+    private ExecHandleBuilder execHandleBuilder;
+
+    @Mock
+    private ExecHandle execHandle;
+
+    @Mock
+    private Poller poller;
+
+    private StartTcpApplicationAsync task;
+
+    @Before
+    public void setUp() {
+        task = createTask(StartTcpApplicationAsync.class);
+        task.setChecker(checker);
+        task.setExecHandleBuilder(execHandleBuilder);
+        task.setPoller(poller);
+
+        given(execHandleBuilder.build()).willReturn(execHandle);
+    }
+
+    @Test
+    public void shouldSetAndReturnAddress() {
+        // When
+        task.setAddress("db.test:5432");
+
+        // Then
+        assertThat(task.getAddresses()).containsExactly(InetSocketAddress.createUnresolved("db.test", 5432));
+    }
+
+    @Test
+    public void shouldUseLocalhostWhenOnlyPortIsGiven() {
+        // When
+        task.setAddress("6379");
+
+        // Then
+        assertThat(task.getAddresses()).containsExactly(InetSocketAddress.createUnresolved("localhost", 6379));
+    }
+
+    @Test
+    public void shouldSetAndAddAddresses() {
+        // When
+        task.setAddresses(Arrays.asList("db.test:5432", "[::1]:9092"));
+        task.addresses(6379);
+
+        // Then
+        assertThat(task.getAddresses()).containsExactly(
+                InetSocketAddress.createUnresolved("db.test", 5432),
+                InetSocketAddress.createUnresolved("::1", 9092),
+                InetSocketAddress.createUnresolved("localhost", 6379));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForInvalidPort() {
+        // When
+        task.setAddress("db.test:port");
+    }
+
+    @Test
+    public void shouldSetAndReturnConnectTimeout() {
+        // When
+        task.setConnectTimeout(100);
+        int result = task.getConnectTimeout();
+
+        // Then
+        assertThat(result).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldSetAndReturnFailIfAlreadyRunning() {
+        // When
+        task.setFailIfAlreadyRunning(false);
+        boolean result = task.isFailIfAlreadyRunning();
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenAddressIsMissing() {
+        // When
+        task.exec();
+    }
+
+    @Test(expected = TcpApplicationIsAlreadyAvailableException.class)
+    public void shouldThrowErrorIfApplicationIsAlreadyRunning() {
+        // Given
+        task.setAddress("db.test:5432");
+        given(checker.isAccessible(task.getAddresses())).willReturn(true);
+
+        // When
+        task.exec();
+    }
+
+    @Test
+    public void shouldNotStartProcessIfApplicationIsAlreadyRunningAndShouldNotFail() {
+        // Given
+        task.setAddress("db.test:5432");
+        task.setFailIfAlreadyRunning(false);
+        given(checker.isAccessible(task.getAddresses())).willReturn(true);
+
+        // When
+        task.exec();
+
+        // Then
+        verifyZeroInteractions(execHandleBuilder);
+    }
+
+    @Test
+    public void shouldStartProcessIfApplicationIsNotRunningAndShouldWait() {
+        // Given
+        task.setAddress("db.test:5432");
+        task.setConnectTimeout(100);
+
+        // When
+        task.exec();
+
+        // Then
+        verify(checker).setConnectTimeout(100);
+        verify(execHandleBuilder).build();
+        verify(poller).awaitAtMost(anyInt(), any(TimeUnit.class), any(Callable.class));
+    }
+
+    @Test
+    public void shouldCheckIfApplicationIsReady() {
+        // Given
+        task.setAddress("db.test:5432");
+        given(checker.isAccessible(Collections.singletonList(InetSocketAddress.createUnresolved("db.test", 5432))))
+                .willReturn(true);
+
+        // When
+        boolean result = task.isApplicationReady();
+
+        // Then
+        assertThat(result).isTrue();
+    }
+}
@@ -17,8 +17,11 @@ package com.github.swierkosz.execasync;
  */
 
 import com.github.swierkosz.execasync.polling.Poller;
+import com.github.swierkosz.execasync.web.BodyPredicate;
+import com.github.swierkosz.execasync.web.MultiplexedWebApplicationChecker;
 import com.github.swierkosz.execasync.web.WebApplicationChecker;
 import com.github.swierkosz.execasync.web.WebApplicationIsAlreadyAvailableException;
+import com.github.swierkosz.execasync.web.WebEndpoint;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.ExecHandleBuilder;
 import org.junit.Before;
@@ -27,13 +30,19 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -43,6 +52,9 @@ public class StartWebApplicationAsyncTest extends AbstractTaskTest {
     @Mock
     private WebApplicationChecker checker;
 
+    @Mock
+    private MultiplexedWebApplicationChecker multiplexedChecker;
+
     @Mock
     private ExecHandleBuilder execHandleBuilder;
 
@@ -58,6 +70,7 @@ public class StartWebApplicationAsyncTest extends AbstractTaskTest {
     public void setUp() {
         task = createTask(StartWebApplicationAsync.class);
         task.setChecker(checker);
+        task.setMultiplexedChecker(multiplexedChecker);
         task.setExecHandleBuilder(execHandleBuilder);
         task.setPoller(poller);
 
@@ -112,6 +125,44 @@ public class StartWebApplicationAsyncTest extends AbstractTaskTest {
         assertThat(result).isEqualTo(failIfAlreadyRunning);
     }
 
+    @Test
+    public void shouldSetAndReturnTimeoutsAndRequestMethod() {
+        // When
+        task.setConnectTimeout(100);
+        task.setReadTimeout(200);
+        task.setRequestMethod("HEAD");
+
+        // Then
+        assertThat(task.getConnectTimeout()).isEqualTo(100);
+        assertThat(task.getReadTimeout()).isEqualTo(200);
+        assertThat(task.getRequestMethod()).isEqualTo("HEAD");
+    }
+
+    @Test
+    public void shouldReturnDefaultTimeoutsAndRequestMethod() {
+        // Then
+        assertThat(task.getConnectTimeout()).isEqualTo(5000);
+        assertThat(task.getReadTimeout()).isEqualTo(5000);
+        assertThat(task.getRequestMethod()).isEqualTo("GET");
+    }
+
+    @Test
+    public void shouldConfigureCheckerBeforeCheckingApplication() {
+        // Given
+        task.setApplicationUrl("http://test.test");
+        task.setConnectTimeout(100);
+        task.setReadTimeout(200);
+        task.setRequestMethod("HEAD");
+
+        // When
+        task.exec();
+
+        // Then
+        verify(checker).setConnectTimeout(100);
+        verify(checker).setReadTimeout(200);
+        verify(checker).setRequestMethod("HEAD");
+    }
+
     @Test(expected = WebApplicationIsAlreadyAvailableException.class)
     public void shouldThrowErrorIfApplicationIsAlreadyRunning() {
         // Given
@@ -184,4 +235,122 @@ public class StartWebApplicationAsyncTest extends AbstractTaskTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    public void shouldAddAndReturnEndpoints() {
+        // When
+        task.endpoint("http://first.test/health");
+        task.endpoint("http://second.test/health", 204);
+
+        // Then
+        assertThat(task.getEndpoints()).containsExactly(
+                new WebEndpoint("http://first.test/health", 200),
+                new WebEndpoint("http://second.test/health", 204));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenEndpointIsNotPlainHttpUrl() {
+        // When
+        task.endpoint("https://first.test/health");
+    }
+
+    @Test
+    public void shouldNotStartProcessWhenApplicationUrlCannotBeCheckedWithEndpoints() {
+        // Given
+        task.setApplicationUrl("https://test.test");
+        task.endpoint("http://first.test/health");
+
+        try {
+            // When
+            task.exec();
+            failBecauseExceptionWasNotThrown(IllegalArgumentException.class);
+        } catch (IllegalArgumentException e) {
+            // Then
+            assertThat(e.getMessage()).contains("https://test.test");
+            verify(execHandleBuilder, never()).build();
+            verifyZeroInteractions(multiplexedChecker);
+        }
+    }
+
+    @Test(expected = WebApplicationIsAlreadyAvailableException.class)
+    public void shouldThrowErrorIfAllEndpointsAreAlreadyAccessible() {
+        // Given
+        WebEndpoint endpoint = new WebEndpoint("http://first.test/health", 200);
+        task.endpoint(endpoint.getUrl());
+        given(multiplexedChecker.getAccessibleEndpoints(Collections.singletonList(endpoint)))
+                .willReturn(Collections.singletonList(endpoint));
+
+        // When
+        task.exec();
+    }
+
+    @Test
+    public void shouldCheckOnlyEndpointsWhichAreNotReadyYet() {
+        // Given
+        WebEndpoint applicationEndpoint = new WebEndpoint("http://test.test", 200);
+        WebEndpoint firstEndpoint = new WebEndpoint("http://first.test/health", 200);
+        WebEndpoint secondEndpoint = new WebEndpoint("http://second.test/health", 204);
+        task.setApplicationUrl(applicationEndpoint.getUrl());
+        task.endpoint(firstEndpoint.getUrl());
+        task.endpoint(secondEndpoint.getUrl(), 204);
+        List<WebEndpoint> allEndpoints = Arrays.asList(applicationEndpoint, firstEndpoint, secondEndpoint);
+        List<WebEndpoint> pendingEndpoints = Arrays.asList(applicationEndpoint, secondEndpoint);
+        given(multiplexedChecker.getAccessibleEndpoints(allEndpoints))
+                .willReturn(Collections.singletonList(firstEndpoint));
+        given(multiplexedChecker.getAccessibleEndpoints(pendingEndpoints))
+                .willReturn(pendingEndpoints);
+
+        // When
+        boolean firstResult = task.isApplicationReady();
+        boolean secondResult = task.isApplicationReady();
+
+        // Then
+        assertThat(firstResult).isFalse();
+        assertThat(secondResult).isTrue();
+        assertThat(task.getReadyEndpoints()).containsExactly(firstEndpoint, applicationEndpoint, secondEndpoint);
+        verifyZeroInteractions(checker);
+    }
+
+    @Test
+    public void shouldSetAndReturnBodyPredicate() {
+        // Given
+        BodyPredicate bodyPredicate = mock(BodyPredicate.class);
+
+        // When
+        task.setBodyPredicate(bodyPredicate);
+        BodyPredicate result = task.getBodyPredicate();
+
+        // Then
+        assertThat(result).isSameAs(bodyPredicate);
+    }
+
+    @Test
+    public void shouldPassBodyPredicateToChecker() {
+        // Given
+        task.setApplicationUrl("http://test.test");
+        task.expectedJsonField("status", "UP");
+
+        // When
+        task.exec();
+
+        // Then
+        verify(checker).setBodyPredicate(task.getBodyPredicate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenEndpointIsAddedAfterExpectedBody() {
+        // Given
+        task.setExpectedBody("UP");
+
+        // When
+        task.endpoint("http://first.test/health");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenExpectedBodyIsSetAfterEndpoint() {
+        // Given
+        task.endpoint("http://first.test/health");
+
+        // When
+        task.expectedJsonField("status", "UP");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+public class AsyncFileOutputStreamTest {
+
+    @Test
+    public void shouldWriteAllBytesInOrderWhenClosed() throws IOException {
+        // Given
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        AsyncFileOutputStream stream = new AsyncFileOutputStream(target, 16, 1000, "writer");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            byte[] chunk = ("line " + i + "\n").getBytes("UTF-8");
+            stream.write(chunk, 0, chunk.length);
+            expected.write(chunk, 0, chunk.length);
+        }
+
+        // When
+        stream.close();
+
+        // Then
+        assertThat(target.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    public void shouldWriteBytesWithinFlushInterval() throws Exception {
+        // Given
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        AsyncFileOutputStream stream = new AsyncFileOutputStream(target, 1024, 50, "writer");
+        stream.write('x');
+        awaitSize(target, 1, 5000);
+        Thread.sleep(500);
+
+        // When
+        stream.write('y');
+        stream.flush();
+
+        // Then
+        awaitSize(target, 2, 1000);
+        assertThat(target.toByteArray()).isEqualTo(new byte[]{'x', 'y'});
+        stream.close();
+    }
+
+    @Test
+    public void shouldNotWaitForSlowTarget() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        ByteArrayOutputStream target = new BlockingOutputStream(writing, released);
+        AsyncFileOutputStream stream = new AsyncFileOutputStream(target, 100, 0, "writer");
+        stream.write(new byte[60]);
+        assertThat(writing.await(10, SECONDS)).isTrue();
+
+        // When
+        long start = System.nanoTime();
+        stream.write(new byte[100]);
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        assertThat(elapsed).isLessThan(SECONDS.toNanos(1));
+        released.countDown();
+        stream.close();
+        assertThat(target.size()).isEqualTo(160);
+    }
+
+    @Test
+    public void shouldDiscardOutputAndReportFailureWhenTargetCannotBeWritten() throws Exception {
+        // Given
+        final CountDownLatch failed = new CountDownLatch(1);
+        OutputStream target = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                failed.countDown();
+                throw new IOException("Disk full");
+            }
+        };
+        AsyncFileOutputStream stream = new AsyncFileOutputStream(target, 8, 0, "writer");
+        stream.write(new byte[8]);
+        assertThat(failed.await(10, SECONDS)).isTrue();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            stream.write(new byte[8]);
+        }
+
+        // Then
+        try {
+            stream.close();
+            failBecauseExceptionWasNotThrown(IOException.class);
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Disk full");
+        }
+    }
+
+    @Test
+    public void shouldCreateFileWithParentDirectories() throws IOException {
+        // Given
+        File directory = Files.createTempDirectory("logs").toFile();
+        File file = new File(directory, "app/app.log");
+        AsyncFileOutputStream stream = new AsyncFileOutputStream(file);
+
+        // When
+        stream.write("started\n".getBytes("UTF-8"));
+        stream.close();
+
+        // Then
+        assertThat(new String(Files.readAllBytes(file.toPath()), "UTF-8")).isEqualTo("started\n");
+        assertThat(file.delete() && file.getParentFile().delete() && directory.delete()).isTrue();
+    }
+
+    private static void awaitSize(ByteArrayOutputStream target, int size, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (target.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static class BlockingOutputStream extends ByteArrayOutputStream {
+        private final CountDownLatch writing;
+        private final CountDownLatch released;
+
+        BlockingOutputStream(CountDownLatch writing, CountDownLatch released) {
+            this.writing = writing;
+            this.released = released;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writing.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(b, off, len);
+        }
+    }
+}
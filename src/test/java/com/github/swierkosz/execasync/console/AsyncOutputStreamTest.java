@@ -0,0 +1,205 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+public class AsyncOutputStreamTest {
+
+    @Test
+    public void shouldWriteAllBytesInOrderWhenFinished() throws IOException {
+        // Given
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.BLOCK, 16, 4, "consumer");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            byte[] line = ("line " + i + "\n").getBytes("UTF-8");
+            stream.write(line, 0, line.length);
+            expected.write(line, 0, line.length);
+        }
+
+        // When
+        stream.finish();
+
+        // Then
+        assertThat(sink.toByteArray()).isEqualTo(expected.toByteArray());
+        assertThat(stream.getDroppedBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldWriteBytesWithoutBeingFlushed() throws Exception {
+        // Given
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.BLOCK, "consumer");
+
+        // When
+        stream.write('x');
+
+        // Then
+        for (int i = 0; i < 200 && sink.size() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(sink.toByteArray()).isEqualTo(new byte[]{'x'});
+        stream.close();
+    }
+
+    @Test
+    public void shouldNotWaitForSlowSinkUntilQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        ByteArrayOutputStream sink = new BlockingOutputStream(writing, released);
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.BLOCK, 10, 10, "consumer");
+        stream.write(new byte[10]);
+        assertThat(writing.await(10, SECONDS)).isTrue();
+
+        // When
+        long start = System.nanoTime();
+        stream.write(new byte[100]);
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        assertThat(elapsed).isLessThan(SECONDS.toNanos(1));
+        released.countDown();
+        stream.finish();
+        assertThat(sink.size()).isEqualTo(110);
+    }
+
+    @Test
+    public void shouldDropOldestOutputWhenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        ByteArrayOutputStream sink = new BlockingOutputStream(writing, released);
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.DROP_OLDEST, 1, 2, "consumer");
+        stream.write('a');
+        assertThat(writing.await(10, SECONDS)).isTrue();
+
+        // When
+        stream.write("bcd".getBytes("UTF-8"));
+
+        // Then
+        released.countDown();
+        stream.finish();
+        assertThat(sink.toString("UTF-8")).isEqualTo("acd");
+        assertThat(stream.getDroppedBytes()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldKeepEveryTenthChunkWrittenWhileQueueIsFullWhenSampling() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        ByteArrayOutputStream sink = new BlockingOutputStream(writing, released);
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.SAMPLE, 1, 2, "consumer");
+        stream.write('a');
+        assertThat(writing.await(10, SECONDS)).isTrue();
+
+        // When
+        stream.write("bcdefghijklm".getBytes("UTF-8"));
+
+        // Then
+        released.countDown();
+        stream.finish();
+        assertThat(sink.toString("UTF-8")).isEqualTo("acm");
+        assertThat(stream.getDroppedBytes()).isEqualTo(10L);
+    }
+
+    @Test
+    public void shouldCloseSinkOnlyWhenClosed() throws IOException {
+        // Given
+        CloseRecordingOutputStream sink = new CloseRecordingOutputStream();
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.BLOCK, "consumer");
+
+        // When
+        stream.finish();
+        boolean closedWhenFinished = sink.closed;
+        stream.close();
+
+        // Then
+        assertThat(closedWhenFinished).isFalse();
+        assertThat(sink.closed).isTrue();
+    }
+
+    @Test
+    public void shouldDiscardOutputAndReportFailureWhenSinkCannotBeWritten() throws Exception {
+        // Given
+        final CountDownLatch failed = new CountDownLatch(1);
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                failed.countDown();
+                throw new IOException("Broken pipe");
+            }
+        };
+        AsyncOutputStream stream = new AsyncOutputStream(sink, OverflowPolicy.BLOCK, 8, 2, "consumer");
+        stream.write(new byte[8]);
+        assertThat(failed.await(10, SECONDS)).isTrue();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            stream.write(new byte[8]);
+        }
+
+        // Then
+        try {
+            stream.finish();
+            failBecauseExceptionWasNotThrown(IOException.class);
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("Broken pipe");
+        }
+    }
+
+    private static class BlockingOutputStream extends ByteArrayOutputStream {
+        private final CountDownLatch writing;
+        private final CountDownLatch released;
+
+        BlockingOutputStream(CountDownLatch writing, CountDownLatch released) {
+            this.writing = writing;
+            this.released = released;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writing.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    private static class CloseRecordingOutputStream extends ByteArrayOutputStream {
+        private boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class FanOutOutputStreamTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteToAllSinks() throws IOException {
+        // Given
+        OutputStream first = mock(OutputStream.class);
+        OutputStream second = mock(OutputStream.class);
+        OutputStream third = mock(OutputStream.class);
+        FanOutOutputStream fanOutOutputStream = new FanOutOutputStream(first, second);
+        fanOutOutputStream.attach(third);
+        byte[] byteArray = new byte[]{1, 2, 3};
+
+        // When
+        fanOutOutputStream.write(byteArray, 1, 2);
+        fanOutOutputStream.flush();
+        fanOutOutputStream.close();
+
+        // Then
+        for (OutputStream sink : new OutputStream[]{first, second, third}) {
+            verify(sink).write(byteArray, 1, 2);
+            verify(sink).flush();
+            verify(sink).close();
+        }
+    }
+
+    @Test
+    public void shouldCloseAllSinksAndRethrowFirstFailure() throws IOException {
+        // Given
+        OutputStream first = mock(OutputStream.class);
+        OutputStream second = mock(OutputStream.class);
+        OutputStream third = mock(OutputStream.class);
+        IOException firstFailure = new IOException("first");
+        willThrow(firstFailure).given(first).close();
+        willThrow(new IOException("second")).given(second).close();
+        FanOutOutputStream fanOutOutputStream = new FanOutOutputStream(first, second, third);
+
+        // When
+        try {
+            fanOutOutputStream.close();
+            failBecauseExceptionWasNotThrown(IOException.class);
+        } catch (IOException e) {
+            // Then
+            assertThat(e).isSameAs(firstFailure);
+        }
+        verify(second).close();
+        verify(third).close();
+    }
+
+    @Test
+    public void shouldNotWriteToDetachedSink() throws IOException {
+        // Given
+        OutputStream first = mock(OutputStream.class);
+        OutputStream second = mock(OutputStream.class);
+        FanOutOutputStream fanOutOutputStream = new FanOutOutputStream(first, second);
+
+        // When
+        boolean result = fanOutOutputStream.detach(first);
+        fanOutOutputStream.write(1);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(fanOutOutputStream.getSinks()).containsExactly(second);
+        verify(second).write(1);
+        verifyZeroInteractions(first);
+    }
+
+    @Test
+    public void shouldIgnoreSinkWhichIsNotAttached() {
+        // Given
+        OutputStream sink = mock(OutputStream.class);
+        FanOutOutputStream fanOutOutputStream = new FanOutOutputStream(sink);
+
+        // When
+        boolean result = fanOutOutputStream.detach(mock(OutputStream.class));
+
+        // Then
+        assertThat(result).isFalse();
+        assertThat(fanOutOutputStream.getSinks()).containsExactly(sink);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAttachNull() {
+        // When
+        new FanOutOutputStream().attach(null);
+    }
+
+    @Test
+    public void shouldWriteEverythingToSinksWhileOtherSinksAreAttachedAndDetachedConcurrently() throws Exception {
+        // Given
+        final CountingOutputStream permanentSink = new CountingOutputStream();
+        final FanOutOutputStream fanOutOutputStream = new FanOutOutputStream(permanentSink);
+        final int writers = 4;
+        final int writes = 50000;
+        final byte[] chunk = new byte[16];
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<Void>> writerFutures = new ArrayList<Future<Void>>();
+        List<Future<Void>> mutatorFutures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < writers; i++) {
+            writerFutures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int j = 0; j < writes; j++) {
+                        fanOutOutputStream.write(chunk, 0, chunk.length);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (int i = 0; i < 4; i++) {
+            mutatorFutures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    while (writing.get()) {
+                        CountingOutputStream sink = new CountingOutputStream();
+                        fanOutOutputStream.attach(sink);
+                        if (!fanOutOutputStream.detach(sink)) {
+                            throw new AssertionError("Attached sink has been lost");
+                        }
+                        if (sink.getCount() % chunk.length != 0) {
+                            throw new AssertionError("Sink has received a partial chunk");
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<Void> future : writerFutures) {
+            future.get();
+        }
+        writing.set(false);
+        for (Future<Void> future : mutatorFutures) {
+            future.get();
+        }
+
+        // Then
+        assertThat(permanentSink.getCount()).isEqualTo((long) writers * writes * chunk.length);
+        assertThat(fanOutOutputStream.getSinks()).containsExactly(permanentSink);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count.addAndGet(len);
+        }
+
+        long getCount() {
+            return count.get();
+        }
+    }
+}
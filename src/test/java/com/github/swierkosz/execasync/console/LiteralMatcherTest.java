@@ -0,0 +1,139 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LiteralMatcherTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void shouldCreateMatcherForPatternWithoutMetacharacters() {
+        // When
+        LiteralMatcher result = LiteralMatcher.forPattern(Pattern.compile("Started Application in 5 seconds"), UTF_8);
+
+        // Then
+        assertThat(result).isNotNull();
+    }
+
+    @Test
+    public void shouldCreateMatcherForLiteralPattern() {
+        // When
+        LiteralMatcher result = LiteralMatcher.forPattern(Pattern.compile("Started (main)", Pattern.LITERAL), UTF_8);
+
+        // Then
+        assertThat(result).isNotNull();
+    }
+
+    @Test
+    public void shouldNotCreateMatcherForRegularExpression() {
+        // When
+        LiteralMatcher result = LiteralMatcher.forPattern(Pattern.compile("Started in \\d+ seconds"), UTF_8);
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldNotCreateMatcherForPatternWithFlags() {
+        // When
+        LiteralMatcher result = LiteralMatcher.forPattern(Pattern.compile("started", Pattern.CASE_INSENSITIVE), UTF_8);
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldNotCreateMatcherForMultiByteCharsetOtherThanUtf8() {
+        // When
+        LiteralMatcher result = LiteralMatcher.forPattern(Pattern.compile("started"), Charset.forName("UTF-16"));
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldFindLiteralSpanningChunks() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher("Started Application".getBytes(UTF_8));
+        byte[] bytes = "INFO Started Application in 5 seconds".getBytes(UTF_8);
+
+        // When
+        boolean first = matcher.find(bytes, 0, 10);
+        boolean second = matcher.find(bytes, 10, 3);
+        boolean third = matcher.find(bytes, 13, 11);
+
+        // Then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        assertThat(third).isTrue();
+    }
+
+    @Test
+    public void shouldNotFindLiteralSpanningReset() {
+        // Given
+        LiteralMatcher matcher = new LiteralMatcher("Started".getBytes(UTF_8));
+        byte[] bytes = "Started".getBytes(UTF_8);
+        matcher.find(bytes, 0, 3);
+        matcher.reset();
+
+        // When
+        boolean result = matcher.find(bytes, 3, 4);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldFindTheSameOccurrencesAsStringSearchForAnyChunking() {
+        // Given
+        Random random = new Random(1234);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            String literal = randomText(random, 1 + random.nextInt(6));
+            String text = randomText(random, random.nextInt(60));
+            byte[] bytes = text.getBytes(UTF_8);
+            LiteralMatcher matcher = new LiteralMatcher(literal.getBytes(UTF_8));
+
+            // When
+            boolean result = false;
+            int off = 0;
+            while (off < bytes.length && !result) {
+                int len = Math.min(bytes.length - off, random.nextInt(8));
+                result = matcher.find(bytes, off, len);
+                off += len;
+            }
+
+            // Then
+            assertThat(result).isEqualTo(text.contains(literal));
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(3)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NonClosingOutputStreamTest {
+
+    @Test
+    public void shouldWriteToTarget() throws IOException {
+        // Given
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        NonClosingOutputStream stream = new NonClosingOutputStream(target);
+
+        // When
+        stream.write('a');
+        stream.write("bcd".getBytes("UTF-8"), 1, 2);
+
+        // Then
+        assertThat(target.toString("UTF-8")).isEqualTo("acd");
+    }
+
+    @Test
+    public void shouldOnlyFlushTargetWhenClosed() throws IOException {
+        // Given
+        TrackingOutputStream target = new TrackingOutputStream();
+        NonClosingOutputStream stream = new NonClosingOutputStream(target);
+
+        // When
+        stream.close();
+
+        // Then
+        assertThat(target.flushed).isTrue();
+        assertThat(target.closed).isFalse();
+    }
+
+    private static class TrackingOutputStream extends ByteArrayOutputStream {
+        private boolean flushed;
+        private boolean closed;
+
+        @Override
+        public void flush() {
+            flushed = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -19,6 +19,9 @@ package com.github.swierkosz.execasync.console;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -64,4 +67,342 @@ public class PatternMatchingOutputStreamTest {
         // Then
         assertThat(result).isTrue();
     }
+
+    @Test
+    public void shouldReturnTrueIfMatchingLineWasSplitAcrossChunks() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(PATTERN);
+        byte[] bytes = "first line\na test expression\nlast line\n".getBytes();
+        stream.write(bytes, 0, 15);
+        stream.write(bytes, 15, 13);
+
+        // When
+        boolean beforeLineFeed = stream.isMatched();
+        stream.write(bytes, 28, bytes.length - 28);
+        boolean afterLineFeed = stream.isMatched();
+
+        // Then
+        assertThat(beforeLineFeed).isFalse();
+        assertThat(afterLineFeed).isTrue();
+    }
+
+    @Test
+    public void shouldIgnoreBytesOutsideOfGivenRange() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(PATTERN);
+        byte[] bytes = "a test expression\n".getBytes();
+
+        // When
+        stream.write(bytes, 3, bytes.length - 3);
+        stream.write(bytes, 0, 3);
+        boolean result = stream.isMatched();
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldBehaveTheSameForBulkAndSingleByteWrites() throws IOException {
+        // Given
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append("line number ").append(i).append(i % 7 == 0 ? "\n\n" : "\n");
+        }
+        input.append("here comes a test expression and more\ntrailing");
+        byte[] bytes = input.toString().getBytes();
+
+        for (int chunkSize = 1; chunkSize <= 64; chunkSize++) {
+            PatternMatchingOutputStream bulkStream = new PatternMatchingOutputStream(PATTERN);
+            PatternMatchingOutputStream singleByteStream = new PatternMatchingOutputStream(PATTERN);
+
+            for (int off = 0; off < bytes.length; off += chunkSize) {
+                // When
+                int len = Math.min(chunkSize, bytes.length - off);
+                bulkStream.write(bytes, off, len);
+                for (int i = off; i < off + len; i++) {
+                    singleByteStream.write(bytes[i]);
+                }
+
+                // Then
+                assertThat(bulkStream.isMatched()).isEqualTo(singleByteStream.isMatched());
+            }
+            assertThat(bulkStream.isMatched()).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldDecodeLinesUsingGivenCharset() throws IOException {
+        // Given
+        Charset charset = Charset.forName("ISO-8859-2");
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(Pattern.compile("za\u017c\u00f3\u0142\u0107 g\u0119\u015bl\u0105 ja\u017a\u0144"), charset);
+        stream.write("other line\n".getBytes(charset));
+        boolean beforeMatchingLine = stream.isMatched();
+        stream.write("text: za\u017c\u00f3\u0142\u0107 g\u0119\u015bl\u0105 ja\u017a\u0144\n".getBytes(charset));
+
+        // When
+        boolean result = stream.isMatched();
+
+        // Then
+        assertThat(beforeMatchingLine).isFalse();
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldMatchLinesLongerThanInitialBuffers() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(PATTERN, Charset.forName("UTF-8"));
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            line.append("filler ");
+        }
+        stream.write((line + "\n").getBytes("UTF-8"));
+        stream.write((line + "a test expression\n").getBytes("UTF-8"));
+
+        // When
+        boolean result = stream.isMatched();
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldMatchAllPatternsAcrossStreamsSharingPatternSet() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(Arrays.asList(
+                Pattern.compile("DB migrated"),
+                Pattern.compile("cache warmed"),
+                Pattern.compile("HTTP listening")), MatchMode.ALL_OF);
+        PatternMatchingOutputStream standardOutput = new PatternMatchingOutputStream(patternSet, charset);
+        PatternMatchingOutputStream errorOutput = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        standardOutput.write("HTTP listening on 8080\nDB migrated\n".getBytes(charset));
+        boolean beforeLastPattern = standardOutput.isMatched() || errorOutput.isMatched();
+        errorOutput.write("cache warmed\n".getBytes(charset));
+
+        // Then
+        assertThat(beforeLastPattern).isFalse();
+        assertThat(standardOutput.isMatched()).isTrue();
+        assertThat(errorOutput.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldMatchPatternsInOrder() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(Arrays.asList(
+                Pattern.compile("DB migrated"),
+                Pattern.compile("HTTP listening")), MatchMode.IN_ORDER);
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("HTTP listening on 8080\nDB migrated\n".getBytes(charset));
+        boolean outOfOrder = stream.isMatched();
+        stream.write("HTTP listening on 8080\n".getBytes(charset));
+
+        // Then
+        assertThat(outOfOrder).isFalse();
+        assertThat(stream.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldMatchLiteralAndRegularExpressionTogether() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(Arrays.asList(
+                Pattern.compile("Started Application"),
+                Pattern.compile("listening on \\d+")), MatchMode.ALL_OF);
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+        byte[] bytes = "INFO Started Application\nINFO listening on 8080\n".getBytes(charset);
+
+        // When
+        for (byte b : bytes) {
+            stream.write(b);
+        }
+
+        // Then
+        assertThat(stream.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldNotMatchLiteralSpanningLines() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(Pattern.compile("Started Application"),
+                Charset.forName("UTF-8"));
+
+        // When
+        stream.write("INFO Started\nApplication\n".getBytes("UTF-8"));
+
+        // Then
+        assertThat(stream.isMatched()).isFalse();
+    }
+
+    @Test
+    public void shouldMatchLiteralsOnTheSameLineInOrder() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(Arrays.asList(
+                Pattern.compile("first"),
+                Pattern.compile("second")), MatchMode.IN_ORDER);
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("second first\n".getBytes(charset));
+
+        // Then
+        assertThat(stream.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldRecordLineMatchingFailurePattern() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(
+                Collections.singletonList(Pattern.compile("Started Application")),
+                MatchMode.ANY_OF,
+                Collections.singletonList(Pattern.compile("FAILED TO START")));
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("INFO Starting\nERROR APPLICATION FAILED TO START\nINFO Started Application\n".getBytes(charset));
+
+        // Then
+        assertThat(stream.getFailedLine()).isEqualTo("ERROR APPLICATION FAILED TO START");
+        assertThat(stream.isMatched()).isFalse();
+    }
+
+    @Test
+    public void shouldRecordLineMatchingFailurePatternWrittenInChunks() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(
+                Collections.singletonList(Pattern.compile("Started Application")),
+                MatchMode.ANY_OF,
+                Collections.singletonList(Pattern.compile("FAILED TO START")));
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("ERROR APPLICATION FAI".getBytes(charset));
+        stream.write("LED TO START\n".getBytes(charset));
+
+        // Then
+        assertThat(stream.getFailedLine()).isEqualTo("ERROR APPLICATION FAILED TO START");
+    }
+
+    @Test
+    public void shouldNotMatchFailurePatternSpanningLines() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(
+                Collections.singletonList(Pattern.compile("Started Application")),
+                MatchMode.ANY_OF,
+                Collections.singletonList(Pattern.compile("FAILED TO START")));
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("INFO NOTHING FAILED TO\n START\nINFO Started Application\n".getBytes(charset));
+
+        // Then
+        assertThat(stream.getFailedLine()).isNull();
+        assertThat(stream.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldRecordLineMatchingRegularExpressionFailurePattern() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(
+                Collections.singletonList(Pattern.compile("Started Application")),
+                MatchMode.ANY_OF,
+                Arrays.asList(Pattern.compile("FAILED TO START"), Pattern.compile("Exit code: [1-9]")));
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("INFO Exit code: 0\nERROR Exit code: 3\nINFO Started Application\n".getBytes(charset));
+
+        // Then
+        assertThat(stream.getFailedLine()).isEqualTo("ERROR Exit code: 3");
+        assertThat(stream.isMatched()).isFalse();
+    }
+
+    @Test
+    public void shouldNotRecordFailureBeforeLineIsTerminated() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(
+                Collections.singletonList(Pattern.compile("Started Application")),
+                MatchMode.ANY_OF,
+                Collections.singletonList(Pattern.compile("FAILED TO START")));
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset);
+
+        // When
+        stream.write("ERROR APPLICATION FAILED TO START".getBytes(charset));
+
+        // Then
+        assertThat(stream.getFailedLine()).isNull();
+    }
+
+    @Test
+    public void shouldMatchLinesTerminatedWithCarriageReturn() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(Pattern.compile("progress: 100%$"),
+                Charset.forName("UTF-8"));
+
+        // When
+        stream.write("progress: 10%\rprogress: 50%\rprogress: 100%\r".getBytes("UTF-8"));
+
+        // Then
+        assertThat(stream.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldTreatCarriageReturnFollowedByLineFeedAsSingleTerminator() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(Pattern.compile("^$"),
+                Charset.forName("UTF-8"));
+
+        // When
+        stream.write("first line\r".getBytes("UTF-8"));
+        stream.write("\nsecond line\r\n".getBytes("UTF-8"));
+
+        // Then
+        assertThat(stream.isMatched()).isFalse();
+    }
+
+    @Test
+    public void shouldMatchOnlyBeginningOfLineLongerThanMaximum() throws IOException {
+        // Given
+        Charset charset = Charset.forName("UTF-8");
+        PatternSet patternSet = new PatternSet(Arrays.asList(
+                Pattern.compile("begin\\w+"),
+                Pattern.compile("end\\w+")), MatchMode.ALL_OF);
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(patternSet, charset, 16);
+
+        // When
+        stream.write("beginning of a long line and its ending\n".getBytes(charset));
+
+        // Then
+        assertThat(patternSet.isMatched(0)).isTrue();
+        assertThat(patternSet.isMatched(1)).isFalse();
+    }
+
+    @Test
+    public void shouldBoundMemoryWhenThereIsNoLineTerminator() throws IOException {
+        // Given
+        PatternMatchingOutputStream stream = new PatternMatchingOutputStream(
+                new PatternSet(Arrays.asList(Pattern.compile("ready\\.")), MatchMode.ANY_OF), Charset.forName("UTF-8"), 1024);
+        byte[] chunk = new byte[8192];
+        Arrays.fill(chunk, (byte) 'x');
+
+        // When
+        for (int i = 0; i < 1280; i++) {
+            stream.write(chunk);
+        }
+        stream.write("\nready.\n".getBytes("UTF-8"));
+
+        // Then
+        assertThat(stream.getBufferCapacity()).isLessThanOrEqualTo(1024);
+        assertThat(stream.isMatched()).isTrue();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PatternSetTest {
+
+    private static final Pattern FIRST = Pattern.compile("first");
+    private static final Pattern SECOND = Pattern.compile("second");
+    private static final Pattern THIRD = Pattern.compile("third");
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAtLeastOnePattern() {
+        // When
+        new PatternSet(Collections.<Pattern>emptyList(), MatchMode.ANY_OF);
+    }
+
+    @Test
+    public void shouldBeMatchedWhenAnyPatternHasMatched() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST, SECOND), MatchMode.ANY_OF);
+
+        // When
+        patternSet.markMatched(1);
+
+        // Then
+        assertThat(patternSet.isMatched()).isTrue();
+        assertThat(patternSet.isPending(0)).isFalse();
+    }
+
+    @Test
+    public void shouldBeMatchedOnlyWhenAllPatternsHaveMatched() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST, SECOND, THIRD), MatchMode.ALL_OF);
+
+        // When
+        patternSet.markMatched(2);
+        patternSet.markMatched(2);
+        patternSet.markMatched(0);
+
+        // Then
+        assertThat(patternSet.isMatched()).isFalse();
+        assertThat(patternSet.isPending(0)).isFalse();
+        assertThat(patternSet.isPending(1)).isTrue();
+        assertThat(patternSet.isPending(2)).isFalse();
+
+        // When
+        patternSet.markMatched(1);
+
+        // Then
+        assertThat(patternSet.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldBeMatchedOnlyWhenPatternsHaveMatchedInOrder() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST, SECOND, THIRD), MatchMode.IN_ORDER);
+
+        // Then
+        assertThat(patternSet.isPending(0)).isTrue();
+        assertThat(patternSet.isPending(1)).isFalse();
+
+        // When
+        patternSet.markMatched(2);
+        patternSet.markMatched(0);
+        patternSet.markMatched(1);
+
+        // Then
+        assertThat(patternSet.isMatched()).isFalse();
+        assertThat(patternSet.isPending(2)).isTrue();
+
+        // When
+        patternSet.markMatched(2);
+
+        // Then
+        assertThat(patternSet.isMatched()).isTrue();
+    }
+
+    @Test
+    public void shouldReturnWhichPatternsHaveMatched() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST, SECOND, THIRD), MatchMode.IN_ORDER);
+
+        // When
+        patternSet.markMatched(0);
+
+        // Then
+        assertThat(patternSet.isMatched(0)).isTrue();
+        assertThat(patternSet.isMatched(1)).isFalse();
+        assertThat(patternSet.isMatched(2)).isFalse();
+    }
+
+    @Test
+    public void shouldRecordFirstFailedLine() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST), MatchMode.ANY_OF, Arrays.asList(SECOND));
+
+        // When
+        patternSet.markFailed("first failure");
+        patternSet.markFailed("second failure");
+
+        // Then
+        assertThat(patternSet.getFailedLine()).isEqualTo("first failure");
+        assertThat(patternSet.isFinished()).isTrue();
+        assertThat(patternSet.isMatched()).isFalse();
+    }
+
+    @Test
+    public void shouldNotifyListenerWhenPatternsHaveMatched() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST, SECOND), MatchMode.ALL_OF);
+        final AtomicInteger notifications = new AtomicInteger();
+        patternSet.addListener(new Runnable() {
+            @Override
+            public void run() {
+                notifications.incrementAndGet();
+            }
+        });
+
+        // When
+        patternSet.markMatched(0);
+        int beforeAllMatched = notifications.get();
+        patternSet.markMatched(1);
+
+        // Then
+        assertThat(beforeAllMatched).isEqualTo(0);
+        assertThat(notifications.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotifyListenerWhenFailurePatternHasMatched() {
+        // Given
+        PatternSet patternSet = new PatternSet(Arrays.asList(FIRST), MatchMode.ANY_OF, Arrays.asList(SECOND));
+        final AtomicInteger notifications = new AtomicInteger();
+        patternSet.addListener(new Runnable() {
+            @Override
+            public void run() {
+                notifications.incrementAndGet();
+            }
+        });
+
+        // When
+        patternSet.markFailed("first failure");
+        patternSet.markFailed("second failure");
+
+        // Then
+        assertThat(notifications.get()).isEqualTo(1);
+    }
+}
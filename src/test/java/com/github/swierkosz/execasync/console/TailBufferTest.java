@@ -0,0 +1,101 @@
+package com.github.swierkosz.execasync.console;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TailBufferTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void shouldKeepAllBytesWhileCapacityIsNotExceeded() {
+        // Given
+        TailBuffer tail = new TailBuffer(16);
+
+        // When
+        tail.write(bytes("abc"), 0, 3);
+        tail.write('d');
+
+        // Then
+        assertThat(tail.toByteArray()).isEqualTo(bytes("abcd"));
+    }
+
+    @Test
+    public void shouldKeepOnlyLastBytesWhenWrappingAround() {
+        // Given
+        TailBuffer tail = new TailBuffer(8);
+        tail.write(bytes("0123456"), 0, 7);
+
+        // When
+        tail.write(bytes("789ab"), 0, 5);
+
+        // Then
+        assertThat(tail.toByteArray()).isEqualTo(bytes("456789ab"));
+    }
+
+    @Test
+    public void shouldKeepOnlyLastBytesOfWriteLongerThanCapacity() {
+        // Given
+        TailBuffer tail = new TailBuffer(4);
+        tail.write('x');
+
+        // When
+        tail.write(bytes("--0123456789--"), 2, 10);
+
+        // Then
+        assertThat(tail.toByteArray()).isEqualTo(bytes("6789"));
+    }
+
+    @Test
+    public void shouldKeepAllBytesWhenCapacityIsExactlyReached() {
+        // Given
+        TailBuffer tail = new TailBuffer(4);
+
+        // When
+        tail.write(bytes("a\nbc"), 0, 4);
+
+        // Then
+        assertThat(tail.toString(UTF_8)).isEqualTo("a\nbc");
+    }
+
+    @Test
+    public void shouldSkipIncompleteFirstLineOnceBytesHaveBeenOverwritten() {
+        // Given
+        TailBuffer tail = new TailBuffer(16);
+
+        // When
+        tail.write(bytes("first line\nsecond line\nthird\n"), 0, 29);
+
+        // Then
+        assertThat(tail.toString(UTF_8)).isEqualTo("third\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveCapacity() {
+        // When
+        new TailBuffer(0);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.swierkosz.execasync.metrics;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupHistoryTest {
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        file = new File(directory, "execasync/startApp-startup-history.txt");
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    @Test
+    public void shouldReturnEmptyHistoryWhenFileDoesNotExist() {
+        // When
+        List<Double> result = new StartupHistory(file).read();
+
+        // Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void shouldReadAppendedTimes() {
+        // Given
+        StartupHistory history = new StartupHistory(file);
+
+        // When
+        history.append(1500.25);
+        history.append(2000);
+        List<Double> result = history.read();
+
+        // Then
+        assertThat(result).containsExactly(1500.25, 2000.0);
+    }
+
+    @Test
+    public void shouldKeepOnlyLastTimes() {
+        // Given
+        StartupHistory history = new StartupHistory(file, 3);
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            history.append(i);
+        }
+        List<Double> result = history.read();
+
+        // Then
+        assertThat(result).containsExactly(3.0, 4.0, 5.0);
+    }
+
+    @Test
+    public void shouldSkipCorruptedLines() throws IOException {
+        // Given
+        assertThat(file.getParentFile().mkdirs()).isTrue();
+        Files.write(file.toPath(), "100.0\nabc\n200.0\n20".getBytes(Charset.forName("UTF-8")));
+
+        // When
+        List<Double> result = new StartupHistory(file).read();
+
+        // Then
+        assertThat(result).containsExactly(100.0, 200.0, 20.0);
+    }
+
+    @Test
+    public void shouldReturnNearestRankPercentile() {
+        // Given
+        List<Double> values = Arrays.asList(50.0, 10.0, 40.0, 20.0, 30.0);
+
+        // Then
+        assertThat(StartupHistory.percentile(values, 100)).isEqualTo(50.0);
+        assertThat(StartupHistory.percentile(values, 95)).isEqualTo(50.0);
+        assertThat(StartupHistory.percentile(values, 50)).isEqualTo(30.0);
+        assertThat(StartupHistory.percentile(values, 20)).isEqualTo(10.0);
+        assertThat(StartupHistory.percentile(values, 1)).isEqualTo(10.0);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.swierkosz.execasync.metrics;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupMetricsTest {
+
+    @Test
+    public void shouldReturnNullForEventsWhichHaveNotHappened() {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+
+        // Then
+        assertThat(metrics.getSpawnLatency()).isNull();
+        assertThat(metrics.getTimeToFirstOutput()).isNull();
+        assertThat(metrics.getTimeToReady()).isNull();
+        assertThat(metrics.getProbeAttempts()).isEqualTo(0);
+        assertThat(metrics.getProbeTime()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void shouldMeasureEventsFromStart() throws InterruptedException {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+        Thread.sleep(5);
+
+        // When
+        metrics.spawned();
+        metrics.ready();
+
+        // Then
+        assertThat(metrics.getSpawnLatency()).isGreaterThanOrEqualTo(5.0);
+        assertThat(metrics.getTimeToReady()).isGreaterThanOrEqualTo(metrics.getSpawnLatency());
+    }
+
+    @Test
+    public void shouldRecordOnlyFirstOutput() throws IOException, InterruptedException {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+        OutputStream sink = metrics.createFirstOutputSink();
+        sink.write(new byte[0]);
+        assertThat(metrics.getTimeToFirstOutput()).isNull();
+
+        // When
+        sink.write('x');
+        Double firstOutput = metrics.getTimeToFirstOutput();
+        Thread.sleep(5);
+        sink.write("more".getBytes("UTF-8"));
+
+        // Then
+        assertThat(firstOutput).isNotNull();
+        assertThat(metrics.getTimeToFirstOutput()).isEqualTo(firstOutput);
+    }
+
+    @Test
+    public void shouldSumProbes() {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+
+        // When
+        metrics.probed(1500000);
+        metrics.probed(500000);
+
+        // Then
+        assertThat(metrics.getProbeAttempts()).isEqualTo(2);
+        assertThat(metrics.getProbeTime()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void shouldRecordOnlyFirstReadyMoment() throws InterruptedException {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+        metrics.ready();
+        Double timeToReady = metrics.getTimeToReady();
+        Thread.sleep(5);
+
+        // When
+        metrics.ready();
+
+        // Then
+        assertThat(metrics.getTimeToReady()).isEqualTo(timeToReady);
+    }
+
+    @Test
+    public void shouldDescribeDeferredWaitAsJson() {
+        // Given
+        StartupMetrics metrics = new StartupMetrics();
+
+        // When
+        metrics.deferred();
+
+        // Then
+        assertThat(metrics.isDeferred()).isTrue();
+        assertThat(metrics.toJson("startServer")).contains("\"deferred\":true,");
+    }
+
+    @Test
+    public void shouldDescribeMetricsAsJson() {
+        // Given
+        StartupMetrics metrics = new StartupMetrics(System.nanoTime(), 0);
+        metrics.spawned();
+        metrics.probed(1250000);
+
+        // When
+        String result = metrics.toJson("start\"Server\"");
+
+        // Then
+        assertThat(result).matches("\\{\"task\":\"start\\\\\"Server\\\\\"\",\"startedAt\":\"1970-01-01T00:00:00.000Z\","
+                + "\"ready\":false,\"deferred\":false,\"spawnLatency\":\\d+\\.\\d{3},\"timeToFirstOutput\":null,\"timeToReady\":null,"
+                + "\"probeAttempts\":1,\"probeTime\":1\\.250\\}");
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PollerTest {
+
+    @Test
+    public void shouldReturnImmediatelyWhenConditionIsMet() {
+        // Given
+        Poller poller = new Poller(10, SECONDS);
+        long start = System.nanoTime();
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        });
+
+        // Then
+        assertThat(System.nanoTime() - start).isLessThan(SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void shouldEvaluateConditionUntilItIsMet() {
+        // Given
+        Poller poller = new Poller(1, MILLISECONDS);
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return evaluations.incrementAndGet() == 3;
+            }
+        });
+
+        // Then
+        assertThat(evaluations.get()).isEqualTo(3);
+    }
+
+    @Test(expected = ApplicationTimeoutException.class)
+    public void shouldThrowExceptionWhenConditionIsNotMetInTime() {
+        // Given
+        Poller poller = new Poller(10, MILLISECONDS);
+
+        // When
+        poller.awaitAtMost(0, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return false;
+            }
+        });
+    }
+
+    @Test(expected = ApplicationTerminatedException.class)
+    public void shouldPropagateExceptionThrownByCondition() {
+        // Given
+        Poller poller = new Poller(10, MILLISECONDS);
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                throw new ApplicationTerminatedException();
+            }
+        });
+    }
+
+    @Test
+    public void shouldEvaluateConditionImmediatelyWhenWokenUp() throws InterruptedException {
+        // Given
+        final Poller poller = new Poller(10, SECONDS);
+        final AtomicBoolean ready = new AtomicBoolean();
+        Thread signallingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                }
+                ready.set(true);
+                poller.wakeUp();
+            }
+        });
+        long start = System.nanoTime();
+        signallingThread.start();
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return ready.get();
+            }
+        });
+
+        // Then
+        assertThat(System.nanoTime() - start).isLessThan(SECONDS.toNanos(5));
+        signallingThread.join();
+    }
+
+    @Test
+    public void shouldWaitInitialDelayBeforeFirstEvaluation() {
+        // Given
+        Poller poller = new Poller(PollingStrategies.withInitialDelay(100, MILLISECONDS,
+                PollingStrategies.fixedInterval(1, MILLISECONDS)));
+        long start = System.nanoTime();
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        });
+
+        // Then
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void shouldAskPollingStrategyForDelayAfterEachAttempt() {
+        // Given
+        final List<Integer> attempts = new ArrayList<Integer>();
+        Poller poller = new Poller(new PollingStrategy() {
+            @Override
+            public long getInitialDelay() {
+                return 0;
+            }
+
+            @Override
+            public long getNextDelay(int attempt, long elapsed) {
+                attempts.add(attempt);
+                return 1;
+            }
+        });
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        // When
+        poller.awaitAtMost(20, SECONDS, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return evaluations.incrementAndGet() == 3;
+            }
+        });
+
+        // Then
+        assertThat(attempts).isEqualTo(Arrays.asList(1, 2));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.github.swierkosz.execasync.polling;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PollingStrategiesTest {
+
+    @Test
+    public void shouldReturnFixedInterval() {
+        // Given
+        PollingStrategy strategy = PollingStrategies.fixedInterval(2, SECONDS);
+
+        // When
+        long first = strategy.getNextDelay(1, 0);
+        long tenth = strategy.getNextDelay(10, 60000);
+
+        // Then
+        assertThat(strategy.getInitialDelay()).isEqualTo(0L);
+        assertThat(first).isEqualTo(2000L);
+        assertThat(tenth).isEqualTo(2000L);
+    }
+
+    @Test
+    public void shouldBackOffExponentiallyUpToMaximum() {
+        // Given
+        PollingStrategy strategy = PollingStrategies.exponentialBackoff(10, 1000, MILLISECONDS);
+
+        // When
+        long first = strategy.getNextDelay(1, 0);
+        long second = strategy.getNextDelay(2, 10);
+        long fourth = strategy.getNextDelay(4, 70);
+        long twentieth = strategy.getNextDelay(20, 10000);
+
+        // Then
+        assertThat(first).isEqualTo(10L);
+        assertThat(second).isEqualTo(20L);
+        assertThat(fourth).isEqualTo(80L);
+        assertThat(twentieth).isEqualTo(1000L);
+    }
+
+    @Test
+    public void shouldShortenBackOffByJitter() {
+        // Given
+        PollingStrategy strategy = PollingStrategies.exponentialBackoff(100, 1000, MILLISECONDS, 3, 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            // When
+            long delay = strategy.getNextDelay(2, 100);
+
+            // Then
+            assertThat(delay).isGreaterThanOrEqualTo(150L);
+            assertThat(delay).isLessThanOrEqualTo(300L);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenJitterIsGreaterThanOne() {
+        // When
+        PollingStrategies.exponentialBackoff(100, 1000, MILLISECONDS, 2, 1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWhenMaximumIsLowerThanInitialInterval() {
+        // When
+        PollingStrategies.exponentialBackoff(100, 10, MILLISECONDS);
+    }
+
+    @Test
+    public void shouldPollTightlyThenRelaxed() {
+        // Given
+        PollingStrategy strategy = PollingStrategies.tightThenRelaxed(10, 5000, 1000, MILLISECONDS);
+
+        // When
+        long tight = strategy.getNextDelay(100, 4999);
+        long relaxed = strategy.getNextDelay(500, 5000);
+
+        // Then
+        assertThat(tight).isEqualTo(10L);
+        assertThat(relaxed).isEqualTo(1000L);
+    }
+
+    @Test
+    public void shouldDelayFirstEvaluation() {
+        // Given
+        PollingStrategy strategy = PollingStrategies.withInitialDelay(3, SECONDS,
+                PollingStrategies.fixedInterval(200, MILLISECONDS));
+
+        // When
+        long initialDelay = strategy.getInitialDelay();
+        long nextDelay = strategy.getNextDelay(1, 3000);
+
+        // Then
+        assertThat(initialDelay).isEqualTo(3000L);
+        assertThat(nextDelay).isEqualTo(200L);
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProcFileSystemTest {
+
+    private File root;
+    private ProcFileSystem procFileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("proc").toFile();
+        procFileSystem = new ProcFileSystem(root);
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Test
+    public void shouldBeSupportedWhenProcessEntriesExist() throws IOException {
+        // Given
+        givenProcess(1, 0, 100, "init");
+
+        // When
+        boolean result = procFileSystem.isSupported();
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldNotBeSupportedWhenThereAreNoProcessEntries() {
+        // When
+        boolean result = procFileSystem.isSupported();
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReadStartTimeOfProcessWithSpacesAndParenthesesInName() throws IOException {
+        // Given
+        givenProcess(42, 1, 123456, "my (odd) app");
+
+        // When
+        Long result = procFileSystem.getStartTime(42);
+
+        // Then
+        assertThat(result).isEqualTo(123456L);
+    }
+
+    @Test
+    public void shouldReturnNullStartTimeOfMissingProcess() {
+        // When
+        Long result = procFileSystem.getStartTime(42);
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldRecognizeProcessOnlyByPidAndStartTime() throws IOException {
+        // Given
+        givenProcess(42, 1, 123456, "app");
+
+        // When
+        boolean sameProcess = procFileSystem.isAlive(42, 123456);
+        boolean reusedPid = procFileSystem.isAlive(42, 654321);
+
+        // Then
+        assertThat(sameProcess).isTrue();
+        assertThat(reusedPid).isFalse();
+    }
+
+    @Test
+    public void shouldNotRecognizeZombieAsAlive() throws IOException {
+        // Given
+        givenProcess(42, "Z", 1, 42, 123456, "app");
+
+        // When
+        boolean result = procFileSystem.isAlive(42, 123456);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReturnMembersOfSessionIncludingOrphans() throws IOException {
+        // Given
+        givenProcess(10, "S", 1, 10, 100, "wrapper");
+        givenProcess(20, "S", 10, 10, 100, "app");
+        givenProcess(30, "S", 1, 10, 100, "orphan");
+        givenProcess(40, "S", 1, 40, 100, "other");
+
+        // When
+        Integer sessionId = procFileSystem.getSessionId(20);
+        List<Integer> members = procFileSystem.getSessionMembers(10);
+
+        // Then
+        assertThat(sessionId).isEqualTo(10);
+        assertThat(members).hasSize(3);
+        assertThat(members).contains(10, 20, 30);
+    }
+
+    @Test
+    public void shouldReturnDescendantsParentsFirst() throws IOException {
+        // Given
+        givenProcess(10, 1, 100, "shell");
+        givenProcess(20, 10, 100, "app");
+        givenProcess(30, 20, 100, "worker");
+        givenProcess(40, 1, 100, "other");
+
+        // When
+        List<Integer> children = procFileSystem.getChildren(10);
+        List<Integer> descendants = procFileSystem.getDescendants(10);
+
+        // Then
+        assertThat(children).containsExactly(20);
+        assertThat(descendants).containsExactly(20, 30);
+    }
+
+    @Test
+    public void shouldReturnDescendantsOfEveryBranch() throws IOException {
+        // Given
+        givenProcess(10, 1, 100, "shell");
+        givenProcess(20, 10, 100, "app");
+        givenProcess(21, 10, 100, "sidecar");
+        givenProcess(30, 20, 100, "worker");
+        givenProcess(31, 21, 100, "helper");
+
+        // When
+        List<Integer> descendants = procFileSystem.getDescendants(10);
+
+        // Then
+        assertThat(descendants).containsOnly(20, 21, 30, 31);
+        assertThat(descendants.indexOf(20)).isLessThan(descendants.indexOf(30));
+        assertThat(descendants.indexOf(21)).isLessThan(descendants.indexOf(31));
+    }
+
+    @Test
+    public void shouldReturnDescendantsOfSeveralProcessesOnlyOnce() throws IOException {
+        // Given
+        givenProcess(10, 1, 100, "shell");
+        givenProcess(20, 10, 100, "app");
+        givenProcess(30, 20, 100, "worker");
+        givenProcess(40, 1, 100, "other");
+        givenProcess(50, 40, 100, "other worker");
+
+        // When
+        List<Integer> descendants = procFileSystem.getDescendants(Arrays.asList(10, 20, 40));
+
+        // Then
+        assertThat(descendants).containsOnly(30, 50);
+        assertThat(descendants).hasSize(2);
+    }
+
+    @Test
+    public void shouldNotLoopWhenParentPidsFormCycle() throws IOException {
+        // Given
+        givenProcess(10, 30, 100, "shell");
+        givenProcess(20, 10, 100, "app");
+        givenProcess(30, 20, 100, "reused");
+
+        // When
+        List<Integer> descendants = procFileSystem.getDescendants(10);
+
+        // Then
+        assertThat(descendants).containsExactly(20, 30);
+    }
+
+    @Test
+    public void shouldReadCommandLine() throws IOException {
+        // Given
+        givenProcess(42, 1, 100, "java");
+        write(new File(new File(root, "42"), "cmdline"), "java\0-jar\0app.jar\0");
+
+        // When
+        List<String> result = procFileSystem.getCommandLine(42);
+
+        // Then
+        assertThat(result).containsExactly("java", "-jar", "app.jar");
+    }
+
+    private void givenProcess(int pid, int parentPid, long startTime, String name) throws IOException {
+        givenProcess(pid, "S", parentPid, 0, startTime, name);
+    }
+
+    private void givenProcess(int pid, String state, int parentPid, int sessionId, long startTime, String name)
+            throws IOException {
+        StringBuilder stat = new StringBuilder();
+        stat.append(pid).append(" (").append(name).append(") ").append(state).append(' ').append(parentPid);
+        stat.append(" 0 ").append(sessionId);
+        for (int field = 6; field < 21; field++) {
+            stat.append(" 0");
+        }
+        stat.append(' ').append(startTime).append(" 0 0\n");
+        File directory = new File(root, String.valueOf(pid));
+        assertThat(directory.mkdir()).isTrue();
+        write(new File(directory, "stat"), stat.toString());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(Charset.forName("UTF-8")));
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
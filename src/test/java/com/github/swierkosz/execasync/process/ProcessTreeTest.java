@@ -0,0 +1,167 @@
+package com.github.swierkosz.execasync.process;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.junit.Assume.assumeTrue;
+
+public class ProcessTreeTest {
+
+    private final ProcFileSystem procFileSystem = new ProcFileSystem();
+    private final ProcessTree processTree = new ProcessTree(procFileSystem);
+    private final List<Integer> pids = new ArrayList<Integer>();
+
+    @Before
+    public void setUp() {
+        assumeTrue(procFileSystem.isSupported() && new File("/bin/sh").canExecute());
+    }
+
+    @After
+    public void tearDown() {
+        for (Integer pid : pids) {
+            processTree.terminate(pid, null, false, 0, 5000, MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void shouldTerminateProcessWithAllDescendants() throws Exception {
+        // Given
+        int pid = start("/bin/sh", "-c", "sleep 60 & sleep 60 & wait");
+        List<Integer> descendants = awaitDescendants(pid, 2);
+
+        // When
+        processTree.terminate(pid, null, false, 5000, 10000, MILLISECONDS);
+
+        // Then
+        assertThat(isAlive(pid)).isFalse();
+        for (Integer descendant : descendants) {
+            assertThat(isAlive(descendant)).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldKillProcessesIgnoringTerminationAfterGracePeriod() throws Exception {
+        // Given
+        int pid = start("/bin/sh", "-c", "trap '' TERM; sleep 60 & wait");
+        List<Integer> descendants = awaitDescendants(pid, 1);
+        long start = System.nanoTime();
+
+        // When
+        processTree.terminate(pid, null, false, 200, 10000, MILLISECONDS);
+
+        // Then
+        assertThat(MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS)).isGreaterThanOrEqualTo(200L);
+        assertThat(isAlive(pid)).isFalse();
+        assertThat(isAlive(descendants.get(0))).isFalse();
+    }
+
+    @Test
+    public void shouldTerminateOrphansOfSessionLeaderWhichHasExited() throws Exception {
+        // Given
+        File setsid = new File("/usr/bin/setsid");
+        assumeTrue(setsid.canExecute());
+        int pid = start(setsid.getPath(), "/bin/sh", "-c", "sleep 60 & echo started");
+        List<Integer> orphans = awaitSessionMembers(pid);
+
+        // When
+        processTree.terminate(pid, null, true, 5000, 10000, MILLISECONDS);
+
+        // Then
+        for (Integer orphan : orphans) {
+            assertThat(isAlive(orphan)).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldNotSignalProcessWhichHasReusedPid() throws Exception {
+        // Given
+        int pid = start("sleep", "60");
+        long recordedStartTime = procFileSystem.getStartTime(pid) - 1;
+
+        // When
+        processTree.terminate(pid, recordedStartTime, true, 0, 1000, MILLISECONDS);
+
+        // Then
+        assertThat(isAlive(pid)).isTrue();
+    }
+
+    @Test
+    public void shouldFailWhenProcessIsStillRunningAfterTimeout() throws Exception {
+        // Given
+        ProcessTree ignoringSignals = new ProcessTree(procFileSystem) {
+            @Override
+            protected void signal(String signal, Collection<Integer> pids) {
+            }
+        };
+        int pid = start("sleep", "60");
+
+        // When
+        try {
+            ignoringSignals.terminate(pid, null, false, 100, 200, MILLISECONDS);
+            failBecauseExceptionWasNotThrown(ProcessTreeStillRunningException.class);
+        } catch (ProcessTreeStillRunningException e) {
+            // Then
+            assertThat(e.getMessage()).contains(String.valueOf(pid));
+        }
+    }
+
+    private int start(String... commandLine) throws Exception {
+        Integer pid = ProcessIds.getPid(new ProcessBuilder(commandLine).start());
+        assertThat(pid).isNotNull();
+        pids.add(pid);
+        return pid;
+    }
+
+    private boolean isAlive(int pid) {
+        Long startTime = procFileSystem.getStartTime(pid);
+        return startTime != null && procFileSystem.isAlive(pid, startTime);
+    }
+
+    private List<Integer> awaitDescendants(int pid, int count) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<Integer> descendants = procFileSystem.getDescendants(pid);
+            if (descendants.size() >= count) {
+                return descendants;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Descendants of " + pid + " have not been started");
+    }
+
+    private List<Integer> awaitSessionMembers(int sessionId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<Integer> members = procFileSystem.getSessionMembers(sessionId);
+            if (!members.isEmpty() && !isAlive(sessionId)) {
+                return members;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Session " + sessionId + " has not been left behind by its leader");
+    }
+}
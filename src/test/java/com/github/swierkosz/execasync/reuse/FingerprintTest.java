@@ -0,0 +1,73 @@
+package com.github.swierkosz.execasync.reuse;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FingerprintTest {
+
+    @Test
+    public void shouldNotDependOnOrderOfEnvironmentVariables() {
+        // Given
+        Map<String, Object> environment = new LinkedHashMap<String, Object>();
+        environment.put("A", "1");
+        environment.put("B", "2");
+        Map<String, Object> reversedEnvironment = new LinkedHashMap<String, Object>();
+        reversedEnvironment.put("B", "2");
+        reversedEnvironment.put("A", "1");
+
+        // When
+        String fingerprint = Fingerprint.of(Arrays.asList("app", "run"), environment, new File("/srv"));
+        String reversedFingerprint = Fingerprint.of(Arrays.asList("app", "run"), reversedEnvironment, new File("/srv"));
+
+        // Then
+        assertThat(fingerprint).isEqualTo(reversedFingerprint);
+        assertThat(fingerprint).matches("[0-9a-f]{64}");
+    }
+
+    @Test
+    public void shouldDistinguishDifferentSplitsOfArguments() {
+        // Given
+        Map<String, Object> environment = new HashMap<String, Object>();
+
+        // When
+        String fingerprint = Fingerprint.of(Arrays.asList("app", "a b"), environment, null);
+        String otherFingerprint = Fingerprint.of(Arrays.asList("app", "a", "b"), environment, null);
+
+        // Then
+        assertThat(fingerprint).isNotEqualTo(otherFingerprint);
+    }
+
+    @Test
+    public void shouldChangeWithWorkingDirectory() {
+        // When
+        String fingerprint = Fingerprint.of(Collections.singletonList("app"), Collections.<String, Object>emptyMap(), new File("/a"));
+        String otherFingerprint = Fingerprint.of(Collections.singletonList("app"), Collections.<String, Object>emptyMap(), new File("/b"));
+
+        // Then
+        assertThat(fingerprint).isNotEqualTo(otherFingerprint);
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.swierkosz.execasync.reuse;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstanceRegistryTest {
+
+    private File directory;
+    private InstanceRegistry registry;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new File(Files.createTempDirectory("registry").toFile(), "execasync");
+        registry = new InstanceRegistry(directory);
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory.getParentFile());
+    }
+
+    @Test
+    public void shouldReadWrittenInstance() {
+        // Given
+        registry.write("startApp", new RegisteredInstance(42, 123456, "abc"));
+
+        // When
+        RegisteredInstance result = registry.read("startApp");
+
+        // Then
+        assertThat(result.getPid()).isEqualTo(42);
+        assertThat(result.getStartTime()).isEqualTo(123456L);
+        assertThat(result.getFingerprint()).isEqualTo("abc");
+    }
+
+    @Test
+    public void shouldReturnNullWhenNoInstanceIsRegistered() {
+        // When
+        RegisteredInstance result = registry.read("startApp");
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldReturnNullWhenRegistryFileIsCorrupted() throws IOException {
+        // Given
+        assertThat(directory.mkdirs()).isTrue();
+        Files.write(new File(directory, "startApp.properties").toPath(), "pid=abc".getBytes(Charset.forName("UTF-8")));
+
+        // When
+        RegisteredInstance result = registry.read("startApp");
+
+        // Then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void shouldDeleteInstance() {
+        // Given
+        registry.write("startApp", new RegisteredInstance(42, 123456, "abc"));
+
+        // When
+        registry.delete("startApp");
+
+        // Then
+        assertThat(registry.read("startApp")).isNull();
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
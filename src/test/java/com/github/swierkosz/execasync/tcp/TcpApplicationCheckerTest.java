@@ -0,0 +1,84 @@
+package com.github.swierkosz.execasync.tcp;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TcpApplicationCheckerTest {
+
+    private final TcpApplicationChecker checker = new TcpApplicationChecker();
+    private ServerSocket firstServer;
+    private ServerSocket secondServer;
+
+    @Before
+    public void setUp() throws IOException {
+        firstServer = new ServerSocket(0);
+        secondServer = new ServerSocket(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        firstServer.close();
+        secondServer.close();
+    }
+
+    @Test
+    public void shouldReturnTrueWhenAllAddressesAcceptConnections() {
+        // When
+        boolean result = checker.isAccessible(Arrays.asList(
+                InetSocketAddress.createUnresolved("localhost", firstServer.getLocalPort()),
+                InetSocketAddress.createUnresolved("localhost", secondServer.getLocalPort())));
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldReturnFalseWhenAnyAddressRefusesConnections() throws IOException {
+        // Given
+        int closedPort = secondServer.getLocalPort();
+        secondServer.close();
+
+        // When
+        boolean result = checker.isAccessible(Arrays.asList(
+                InetSocketAddress.createUnresolved("localhost", firstServer.getLocalPort()),
+                InetSocketAddress.createUnresolved("localhost", closedPort)));
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReturnFalseWhenHostCannotBeResolved() {
+        // When
+        boolean result = checker.isAccessible(Collections.singletonList(
+                InetSocketAddress.createUnresolved("unknown.host.invalid", firstServer.getLocalPort())));
+
+        // Then
+        assertThat(result).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonFieldBodyPredicateTest {
+
+    @Test
+    public void shouldMatchStringField() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+
+        // When
+        boolean result = predicate.matches(new StringReader("{ \"status\" : \"UP\" }"));
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldNotMatchDifferentValue() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+
+        // When
+        boolean result = predicate.matches(new StringReader("{\"status\":\"STARTING\"}"));
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldSkipNestedFieldsWithTheSameName() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+        String body = "{\"components\":{\"db\":{\"status\":\"UP\"},\"list\":[1,\"}\",{\"a\":[]}]},"
+                + "\"note\":\"say \\\"hi\\\"\",\"count\":12,\"status\":\"DOWN\"}";
+
+        // When
+        boolean result = predicate.matches(new StringReader(body));
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldMatchTopLevelFieldAfterNestedValues() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+        String body = "{\"components\":{\"db\":{\"status\":\"DOWN\"}},\"flag\":true,\"status\":\"UP\"}";
+
+        // When
+        boolean result = predicate.matches(new StringReader(body));
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldMatchUnescapedStringAndLiteralValues() throws IOException {
+        // When
+        boolean escaped = BodyPredicates.jsonField("state", "UP\u00e9")
+                .matches(new StringReader("{\"state\":\"UP\\u00e9\"}"));
+        boolean literal = BodyPredicates.jsonField("ready", "true")
+                .matches(new StringReader("{\"ready\":true}"));
+        boolean number = BodyPredicates.jsonField("replicas", "3")
+                .matches(new StringReader("{\"replicas\" : 3 , \"x\":1}"));
+
+        // Then
+        assertThat(escaped).isTrue();
+        assertThat(literal).isTrue();
+        assertThat(number).isTrue();
+    }
+
+    @Test
+    public void shouldNotMatchBodyWhichIsNotJsonObject() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+
+        // When
+        boolean array = predicate.matches(new StringReader("[{\"status\":\"UP\"}]"));
+        boolean truncated = predicate.matches(new StringReader("{\"status\":\"U"));
+        boolean empty = predicate.matches(new StringReader(""));
+
+        // Then
+        assertThat(array).isFalse();
+        assertThat(truncated).isFalse();
+        assertThat(empty).isFalse();
+    }
+
+    @Test
+    public void shouldStopReadingOnceFieldIsFound() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.jsonField("status", "UP");
+        StringBuilder body = new StringBuilder("{\"status\":\"UP\",\"details\":\"");
+        int prefixLength = body.length();
+        for (int i = 0; i < 100000; i++) {
+            body.append('x');
+        }
+        body.append("\"}");
+        RegexBodyPredicateTest.ChunkedReader reader = new RegexBodyPredicateTest.ChunkedReader(body.toString(), 1);
+
+        // When
+        boolean result = predicate.matches(reader);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(reader.position).isLessThan(prefixLength);
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MultiplexedWebApplicationCheckerTest {
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+    private final MultiplexedWebApplicationChecker checker = new MultiplexedWebApplicationChecker();
+    private HttpServer server;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ready", new RespondingHandler(200));
+        server.createContext("/starting", new RespondingHandler(503));
+        server.createContext("/created", new RespondingHandler(201));
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReturnEndpointsRespondingWithExpectedStatus() {
+        // Given
+        WebEndpoint ready = new WebEndpoint(url + "/ready", 200);
+        WebEndpoint starting = new WebEndpoint(url + "/starting", 200);
+        WebEndpoint created = new WebEndpoint(url + "/created?id=1", 201);
+
+        // When
+        List<WebEndpoint> result = checker.getAccessibleEndpoints(Arrays.asList(ready, starting, created));
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result).contains(ready, created);
+        assertThat(requests).contains("GET /ready", "GET /starting", "GET /created?id=1");
+    }
+
+    @Test
+    public void shouldUseConfiguredRequestMethod() {
+        // Given
+        checker.setRequestMethod("HEAD");
+
+        // When
+        List<WebEndpoint> result = checker.getAccessibleEndpoints(
+                Collections.singletonList(new WebEndpoint(url + "/ready", 200)));
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(requests).containsExactly("HEAD /ready");
+    }
+
+    @Test
+    public void shouldNotReturnEndpointsWhichAreNotListening() throws IOException {
+        // Given
+        ServerSocket socket = new ServerSocket(0);
+        int closedPort = socket.getLocalPort();
+        socket.close();
+        WebEndpoint ready = new WebEndpoint(url + "/ready", 200);
+        WebEndpoint closed = new WebEndpoint("http://127.0.0.1:" + closedPort + "/ready", 200);
+
+        // When
+        List<WebEndpoint> result = checker.getAccessibleEndpoints(Arrays.asList(closed, ready));
+
+        // Then
+        assertThat(result).containsExactly(ready);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForHttpsUrl() {
+        // When
+        checker.getAccessibleEndpoints(Collections.singletonList(new WebEndpoint("https://test.test", 200)));
+    }
+
+    private class RespondingHandler implements HttpHandler {
+        private final int responseCode;
+
+        RespondingHandler(int responseCode) {
+            this.responseCode = responseCode;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(responseCode, -1);
+            } else {
+                byte[] body = "response body".getBytes("UTF-8");
+                exchange.sendResponseHeaders(responseCode, body.length);
+                OutputStream responseBody = exchange.getResponseBody();
+                responseBody.write(body);
+                responseBody.close();
+            }
+            exchange.close();
+        }
+    }
+}
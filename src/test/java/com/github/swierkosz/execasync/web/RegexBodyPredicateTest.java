@@ -0,0 +1,112 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegexBodyPredicateTest {
+
+    @Test
+    public void shouldMatchBodyContainingPattern() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.regex("\"status\"\\s*:\\s*\"UP\"");
+
+        // When
+        boolean result = predicate.matches(new StringReader("{\"status\" : \"UP\"}"));
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldNotMatchBodyWithoutPattern() throws IOException {
+        // Given
+        BodyPredicate predicate = BodyPredicates.regex("UP");
+
+        // When
+        boolean result = predicate.matches(new StringReader("{\"status\":\"STARTING\"}"));
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldMatchPatternSpanningChunks() throws IOException {
+        // Given
+        RegexBodyPredicate predicate = new RegexBodyPredicate(Pattern.compile("ready"), 16);
+        char[] body = new char[100];
+        Arrays.fill(body, 'x');
+        "ready".getChars(0, 5, body, 14);
+
+        // When
+        boolean result = predicate.matches(new ChunkedReader(new String(body), 16));
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldStopReadingOnceMatched() throws IOException {
+        // Given
+        RegexBodyPredicate predicate = new RegexBodyPredicate(Pattern.compile("ready"), 16);
+        char[] body = new char[10000];
+        Arrays.fill(body, 'x');
+        "ready".getChars(0, 5, body, 0);
+        ChunkedReader reader = new ChunkedReader(new String(body), 16);
+
+        // When
+        boolean result = predicate.matches(reader);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(reader.position).isEqualTo(16);
+    }
+
+    static class ChunkedReader extends Reader {
+        private final String text;
+        private final int chunkSize;
+        int position = 0;
+
+        ChunkedReader(String text, int chunkSize) {
+            this.text = text;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) {
+            if (position == text.length()) {
+                return -1;
+            }
+            int read = Math.min(Math.min(len, chunkSize), text.length() - position);
+            text.getChars(position, position + read, buffer, off);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
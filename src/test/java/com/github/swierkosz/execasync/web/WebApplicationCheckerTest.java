@@ -0,0 +1,209 @@
+package com.github.swierkosz.execasync.web;
+
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WebApplicationCheckerTest {
+
+    private final List<String> methods = new CopyOnWriteArrayList<String>();
+    private final List<InetSocketAddress> clients = new CopyOnWriteArrayList<InetSocketAddress>();
+    private final WebApplicationChecker checker = new WebApplicationChecker();
+    private final CountDownLatch stalledResponseReleased = new CountDownLatch(1);
+    private HttpServer server;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ready", new RespondingHandler(200));
+        server.createContext("/missing", new RespondingHandler(404));
+        server.createContext("/health", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "{\"status\":\"UP\u00e9\"}".getBytes("ISO-8859-1");
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=ISO-8859-1");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream responseBody = exchange.getResponseBody();
+                responseBody.write(body);
+                responseBody.close();
+                exchange.close();
+            }
+        });
+        server.createContext("/stalled", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream responseBody = exchange.getResponseBody();
+                responseBody.write("{\"status\":\"UP\",".getBytes("UTF-8"));
+                responseBody.flush();
+                try {
+                    stalledResponseReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        stalledResponseReleased.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReturnTrueWhenResponseCodeIsExpected() {
+        // When
+        boolean result = checker.isUrlAccessible(url + "/ready", 200);
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldReturnFalseWhenResponseCodeIsDifferent() {
+        // When
+        boolean result = checker.isUrlAccessible(url + "/missing", 200);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReturnFalseWhenApplicationIsNotListening() {
+        // Given
+        server.stop(0);
+
+        // When
+        boolean result = checker.isUrlAccessible(url + "/ready", 200);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReuseConnectionBetweenChecks() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            checker.isUrlAccessible(url + "/ready", 200);
+            checker.isUrlAccessible(url + "/missing", 200);
+        }
+
+        // Then
+        Set<InetSocketAddress> distinctClients = new HashSet<InetSocketAddress>(clients);
+        assertThat(clients).hasSize(10);
+        assertThat(distinctClients).hasSize(1);
+    }
+
+    @Test
+    public void shouldUseConfiguredRequestMethod() {
+        // Given
+        checker.setRequestMethod("HEAD");
+
+        // When
+        boolean result = checker.isUrlAccessible(url + "/ready", 200);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(methods).containsExactly("HEAD");
+    }
+
+    @Test
+    public void shouldReturnTrueWhenBodyMatchesPredicate() {
+        // Given
+        checker.setBodyPredicate(BodyPredicates.jsonField("status", "UP\u00e9"));
+
+        // When
+        boolean result = checker.isUrlAccessible(url + "/health", 200);
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldReturnFalseWhenBodyDoesNotMatchPredicate() {
+        // Given
+        checker.setBodyPredicate(BodyPredicates.regex("STARTING"));
+
+        // When
+        boolean result = checker.isUrlAccessible(url + "/health", 200);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void shouldReturnPredicateResultWithoutWaitingForRestOfBody() {
+        // Given
+        checker.setReadTimeout(500);
+        checker.setBodyPredicate(BodyPredicates.regex("\"UP\""));
+
+        // When
+        long start = System.nanoTime();
+        boolean result = checker.isUrlAccessible(url + "/stalled", 200);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(elapsed).isLessThan(500L);
+    }
+
+    private class RespondingHandler implements HttpHandler {
+        private final int responseCode;
+
+        RespondingHandler(int responseCode) {
+            this.responseCode = responseCode;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            methods.add(exchange.getRequestMethod());
+            clients.add(exchange.getRemoteAddress());
+            byte[] body = "response body".getBytes("UTF-8");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(responseCode, -1);
+            } else {
+                exchange.sendResponseHeaders(responseCode, body.length);
+                OutputStream responseBody = exchange.getResponseBody();
+                responseBody.write(body);
+                responseBody.close();
+            }
+            exchange.close();
+        }
+    }
+}